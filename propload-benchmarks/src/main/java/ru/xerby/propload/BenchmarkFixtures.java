@@ -0,0 +1,84 @@
+package ru.xerby.propload;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Synthetic dictionaries and command lines shared by the benchmarks. Every fourth property is typed and every eighth
+ * one has a char alias, so lookups and getters hit all code paths.
+ */
+final class BenchmarkFixtures {
+    private static final PropertyDefinition.ParamType[] TYPES = {
+            PropertyDefinition.ParamType.STRING, PropertyDefinition.ParamType.INTEGER,
+            PropertyDefinition.ParamType.LONG, PropertyDefinition.ParamType.FLOAT, PropertyDefinition.ParamType.BOOLEAN};
+    private static final String ALIAS_CHARS = "abcdefghijklmnopqrstuvwxyz";
+
+    private BenchmarkFixtures() {
+    }
+
+    static String propertyName(int i) {
+        return "PROPERTY_" + i;
+    }
+
+    static PropertyDefinition.ParamType paramType(int i) {
+        return i % 4 == 0 ? TYPES[1 + (i / 4) % 4] : PropertyDefinition.ParamType.STRING;
+    }
+
+    static String value(int i) {
+        switch (paramType(i)) {
+            case INTEGER:
+            case LONG:
+                return Integer.toString(i);
+            case FLOAT:
+                return i + ".5";
+            case BOOLEAN:
+                return i % 3 == 0 ? "true" : "no";
+            default:
+                return "value-" + i;
+        }
+    }
+
+    static char charAlias(int i) {
+        return i % 8 == 0 && i / 8 < ALIAS_CHARS.length() ? ALIAS_CHARS.charAt(i / 8) : '\0';
+    }
+
+    static PropertyDictionary dictionary(int size) {
+        PropertyDictionary propertyDictionary = new PropertyDictionary();
+        for (int i = 0; i < size; i++)
+            propertyDictionary.registerProperty(new PropertyDefinition(propertyName(i), "Property number " + i, null,
+                    PropertyDefinition.ParametrizationDegree.PARAMETER_OPTIONAL, false, false, paramType(i), charAlias(i),
+                    "property-" + i, "p" + i));
+        return propertyDictionary;
+    }
+
+    static byte[] dictionaryYaml(int size) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append(propertyName(i)).append(":\n")
+                    .append("  description: Property number ").append(i).append('\n')
+                    .append("  param_type: ").append(paramType(i)).append('\n')
+                    .append("  cmd_aliases: [ property-").append(i).append(", p").append(i).append(" ]\n");
+            if (charAlias(i) != '\0')
+                sb.append("  char_cmd_alias: ").append(charAlias(i)).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Command line which mixes "--key value", "--key=value" and cmd aliases, roughly {@code tokens} tokens long
+     */
+    static String[] commandLine(int tokens, int dictionarySize) {
+        String[] args = new String[tokens];
+        int i = 0;
+        int property = 0;
+        while (i < tokens) {
+            int index = property++ % dictionarySize;
+            if (property % 3 == 0 || i == tokens - 1)
+                args[i++] = "--" + propertyName(index) + "=" + value(index);
+            else {
+                args[i++] = (property % 3 == 1 ? "--property-" : "--p") + index;
+                args[i++] = value(index);
+            }
+        }
+        return args;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.xerby.propload;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full build from all the sources: command line, external file, environment (prefix which is normally absent) and resource file.
+ * Each source sets its own quarter of the dictionary, the remaining properties are left unset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildPropertiesBenchmark {
+    private static final String RESOURCE_NAME = "benchmark.properties";
+
+    @Param({"20", "200"})
+    public int dictionarySize;
+
+    private PropertyLoader propertyLoader;
+    private String[] args;
+    private Path externalFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        propertyLoader = new PropertyLoader(BenchmarkFixtures.dictionary(dictionarySize));
+        propertyLoader.setThrowExceptionIfUnknownPropFilePropertyFound(false);
+
+        int quarter = dictionarySize / 4;
+        args = new String[quarter * 2];
+        for (int i = 0; i < quarter; i++) {
+            args[2 * i] = "--" + BenchmarkFixtures.propertyName(i);
+            args[2 * i + 1] = BenchmarkFixtures.value(i);
+        }
+
+        Properties properties = new Properties();
+        for (int i = quarter; i < 2 * quarter; i++)
+            properties.setProperty(BenchmarkFixtures.propertyName(i), BenchmarkFixtures.value(i));
+        externalFile = Files.createTempFile("propload-benchmark", ".properties");
+        try (OutputStream stream = Files.newOutputStream(externalFile)) {
+            properties.store(stream, null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(externalFile);
+    }
+
+    @Benchmark
+    public PropertySnapshot buildProperties() {
+        propertyLoader.buildProperties(args, externalFile.toString(), "PROPLOAD_BENCHMARK_", RESOURCE_NAME);
+        return propertyLoader.getSnapshot();
+    }
+}
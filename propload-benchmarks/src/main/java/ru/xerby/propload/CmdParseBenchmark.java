@@ -0,0 +1,38 @@
+package ru.xerby.propload;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CmdParseBenchmark {
+    @Param({"8", "10000"})
+    public int tokens;
+
+    private String[] args;
+
+    @Setup
+    public void setUp() {
+        args = BenchmarkFixtures.commandLine(tokens, 100);
+    }
+
+    @Benchmark
+    public ParsedCmdProperties parse() {
+        return ParsedCmdProperties.parse(args, false, true);
+    }
+}
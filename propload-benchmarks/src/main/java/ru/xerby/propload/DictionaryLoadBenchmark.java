@@ -0,0 +1,39 @@
+package ru.xerby.propload;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryLoadBenchmark {
+    @Param({"10", "1000"})
+    public int dictionarySize;
+
+    private byte[] yaml;
+
+    @Setup
+    public void setUp() {
+        yaml = BenchmarkFixtures.dictionaryYaml(dictionarySize);
+    }
+
+    @Benchmark
+    public PropertyDictionary loadFromInputStream() {
+        return PropertyDictionary.loadFromInputStream(new ByteArrayInputStream(yaml));
+    }
+}
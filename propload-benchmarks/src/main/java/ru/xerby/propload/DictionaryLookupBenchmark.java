@@ -0,0 +1,68 @@
+package ru.xerby.propload;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves a fixed mix of command line keys (names, cmd aliases, char aliases and unknown keys) against dictionaries of different sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryLookupBenchmark {
+    private static final int QUERIES = 64;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int dictionarySize;
+
+    private PropertyDictionary propertyDictionary;
+    private ParsedCmdProperty[] queries;
+
+    @Setup
+    public void setUp() {
+        propertyDictionary = BenchmarkFixtures.dictionary(dictionarySize);
+        Random random = new Random(42);
+        queries = new ParsedCmdProperty[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int index = random.nextInt(dictionarySize);
+            switch (i % 4) {
+                case 0:
+                    queries[i] = new ParsedCmdProperty(BenchmarkFixtures.propertyName(index).toLowerCase(), "1", true);
+                    break;
+                case 1:
+                    queries[i] = new ParsedCmdProperty("property-" + index, "1", true);
+                    break;
+                case 2:
+                    queries[i] = new ParsedCmdProperty('a', "1", true);
+                    break;
+                default:
+                    queries[i] = new ParsedCmdProperty("unknown-" + index, "1", true);
+            }
+        }
+        propertyDictionary.getByCmdProperty(queries[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void getByCmdProperty(Blackhole blackhole) {
+        for (ParsedCmdProperty query : queries)
+            blackhole.consume(propertyDictionary.getByCmdProperty(query));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.xerby.propload;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads single values from a built loader of 100 properties by name and by {@link PropertyKey} handle.
+ * Property numbers follow the type pattern of {@link BenchmarkFixtures}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypedGettersBenchmark {
+    private static final int DICTIONARY_SIZE = 100;
+
+    public String stringKey = BenchmarkFixtures.propertyName(1);
+    public String intKey = BenchmarkFixtures.propertyName(0);
+    public String longKey = BenchmarkFixtures.propertyName(4);
+    public String doubleKey = BenchmarkFixtures.propertyName(8);
+    public String booleanKey = BenchmarkFixtures.propertyName(12);
+
+    private PropertyLoader propertyLoader;
+    private PropertyKey<Integer> intHandle;
+    private PropertyKey<Double> doubleHandle;
+
+    @Setup
+    public void setUp() {
+        PropertyDictionary propertyDictionary = BenchmarkFixtures.dictionary(DICTIONARY_SIZE);
+        propertyLoader = new PropertyLoader(propertyDictionary);
+        String[] args = new String[DICTIONARY_SIZE];
+        for (int i = 0; i < DICTIONARY_SIZE; i++)
+            args[i] = "--" + BenchmarkFixtures.propertyName(i) + "=" + BenchmarkFixtures.value(i);
+        propertyLoader.buildProperties(args, null, null, "benchmark.properties");
+        intHandle = PropertyKey.of(propertyDictionary, intKey, Integer.class);
+        doubleHandle = PropertyKey.of(propertyDictionary, doubleKey, Double.class);
+    }
+
+    @Benchmark
+    public String get() {
+        return propertyLoader.get(stringKey);
+    }
+
+    @Benchmark
+    public int getAsInt() {
+        return propertyLoader.getAsInt(intKey);
+    }
+
+    @Benchmark
+    public long getAsLong() {
+        return propertyLoader.getAsLong(longKey);
+    }
+
+    @Benchmark
+    public double getAsDouble() {
+        return propertyLoader.getAsDouble(doubleKey);
+    }
+
+    @Benchmark
+    public boolean getAsBoolean() {
+        return propertyLoader.getAsBoolean(booleanKey);
+    }
+
+    @Benchmark
+    public int getAsIntByHandle() {
+        return propertyLoader.getAsInt(intHandle);
+    }
+
+    @Benchmark
+    public double getAsDoubleByHandle() {
+        return propertyLoader.getAsDouble(doubleHandle);
+    }
+}
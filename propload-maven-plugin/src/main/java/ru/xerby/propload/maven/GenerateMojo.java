@@ -0,0 +1,74 @@
+package ru.xerby.propload.maven;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import ru.xerby.propload.PropertyDictionary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads a dictionary YAML (the same format as {@link PropertyDictionary#loadFromFile(File)} consumes) and generates
+ * a class with typed accessors and the pre-built dictionary, see {@link PropertyClassGenerator}.
+ * The output directory is added to the compile source roots of the project.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project.basedir}/src/main/resources/properties.yaml", required = true)
+    private File dictionaryFile;
+
+    @Parameter(required = true)
+    private String className;
+
+    @Parameter(defaultValue = "false")
+    private boolean caseSensitive;
+
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/propload", required = true)
+    private File outputDirectory;
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (!dictionaryFile.isFile())
+            throw new MojoExecutionException("Dictionary file " + dictionaryFile + " not found");
+
+        String source;
+        PropertyClassGenerator generator;
+        try {
+            generator = new PropertyClassGenerator(PropertyDictionary.loadFromFile(dictionaryFile, caseSensitive), className);
+            source = generator.generate();
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Can't generate " + className + " from " + dictionaryFile + ": " + e.getMessage(), e);
+        }
+
+        Path directory = outputDirectory.toPath();
+        if (generator.getPackageName() != null)
+            directory = directory.resolve(generator.getPackageName().replace('.', File.separatorChar));
+        Path target = directory.resolve(generator.getSimpleClassName() + ".java");
+        try {
+            Files.createDirectories(directory);
+            byte[] content = source.getBytes(StandardCharsets.UTF_8);
+            if (!Files.exists(target) || !Arrays.equals(Files.readAllBytes(target), content)) {
+                Files.write(target, content);
+                getLog().info("Generated " + target);
+            } else
+                getLog().debug(target + " is up to date");
+        } catch (IOException e) {
+            throw new MojoExecutionException("Can't write " + target, e);
+        }
+
+        if (project != null)
+            project.addCompileSourceRoot(outputDirectory.getPath());
+    }
+}
@@ -0,0 +1,295 @@
+package ru.xerby.propload.maven;
+
+import ru.xerby.propload.PropertyDefinition;
+import ru.xerby.propload.PropertyDictionary;
+import ru.xerby.propload.PropertyKey;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Generates the source of a class which gives typed access to the properties of a dictionary.
+ * <p>The generated class contains the dictionary itself, constraints included, as plain constructor calls (so no YAML has to be parsed at runtime)
+ * and one accessor per property, so a misspelled property name becomes a compile error. The accessor type follows the
+ * param type of the property: parameterless properties get {@code boolean isXxx()}, typed ones get a getter of the
+ * corresponding primitive type, and the rest get a {@code String} getter.
+ * <p>The accessors don't look property names up: the nested {@code Keys} class holds a {@link ru.xerby.propload.PropertyKey}
+ * per property, resolved once against the compiled dictionary returned by {@code getCompiledDictionary()}. A loader created
+ * with that dictionary reads each property with one array read.
+ */
+public class PropertyClassGenerator {
+    private static final String INDENT = "    ";
+    private static final String KEYS_CLASS_NAME = "Keys";
+
+    private final PropertyDictionary propertyDictionary;
+    private final String packageName;
+    private final String simpleClassName;
+
+    public PropertyClassGenerator(PropertyDictionary propertyDictionary, String className) {
+        this.propertyDictionary = propertyDictionary;
+        int lastDot = className.lastIndexOf('.');
+        this.packageName = lastDot < 0 ? null : className.substring(0, lastDot);
+        this.simpleClassName = className.substring(lastDot + 1);
+        if (!isJavaIdentifier(simpleClassName))
+            throw new IllegalArgumentException("\"" + className + "\" is not a valid class name");
+        if (simpleClassName.equals(KEYS_CLASS_NAME))
+            throw new IllegalArgumentException("\"" + className + "\" clashes with the nested class " + KEYS_CLASS_NAME);
+    }
+
+    public String getSimpleClassName() {
+        return simpleClassName;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String generate() {
+        StringBuilder sb = new StringBuilder();
+        if (packageName != null)
+            sb.append("package ").append(packageName).append(";\n\n");
+        sb.append("import ru.xerby.propload.CompiledDictionary;\n")
+                .append("import ru.xerby.propload.PropertyDefinition;\n")
+                .append("import ru.xerby.propload.PropertyDictionary;\n")
+                .append("import ru.xerby.propload.PropertyKey;\n")
+                .append("import ru.xerby.propload.PropertyLoader;\n\n")
+                .append("/**\n * Typed access to the properties. Generated by propload-maven-plugin, don't edit it manually.\n */\n")
+                .append("public final class ").append(simpleClassName).append(" {\n");
+        appendConstants(sb);
+        sb.append('\n').append(INDENT).append("private final PropertyLoader propertyLoader;\n\n")
+                .append(INDENT).append("public ").append(simpleClassName).append("(PropertyLoader propertyLoader) {\n")
+                .append(INDENT).append(INDENT).append("this.propertyLoader = propertyLoader;\n")
+                .append(INDENT).append("}\n\n")
+                .append(INDENT).append("public PropertyLoader getPropertyLoader() {\n")
+                .append(INDENT).append(INDENT).append("return propertyLoader;\n")
+                .append(INDENT).append("}\n");
+        appendCreateDictionary(sb);
+        appendKeys(sb);
+        appendAccessors(sb);
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private void appendConstants(StringBuilder sb) {
+        Map<String, String> usedNames = new HashMap<>();
+        for (PropertyDefinition definition : propertyDictionary.values()) {
+            String constant = constantName(definition.getName());
+            checkUnique(usedNames, constant, definition);
+            sb.append(INDENT).append("public static final String ").append(constant)
+                    .append(" = ").append(literal(definition.getName())).append(";\n");
+        }
+    }
+
+    private void appendCreateDictionary(StringBuilder sb) {
+        sb.append('\n').append(INDENT).append("public static PropertyDictionary createDictionary() {\n")
+                .append(INDENT).append(INDENT).append("PropertyDictionary propertyDictionary = new PropertyDictionary(")
+                .append(propertyDictionary.caseSensitive).append(");\n");
+        for (Map.Entry<String, PropertyDefinition> entry : propertyDictionary.entrySet()) {
+            PropertyDefinition definition = entry.getValue();
+            sb.append(INDENT).append(INDENT).append("propertyDictionary.put(").append(literal(entry.getKey()))
+                    .append(", new PropertyDefinition(")
+                    .append(literal(definition.getName())).append(", ")
+                    .append(literal(definition.getDescription())).append(", ")
+                    .append(literal(definition.getDefaultValue())).append(", ")
+                    .append("PropertyDefinition.ParametrizationDegree.").append(definition.getParametrization()).append(", ")
+                    .append(definition.isRequired()).append(", ")
+                    .append(definition.isSensitive()).append(", ")
+                    .append(definition.getParamType() == null ? "null" : "PropertyDefinition.ParamType." + definition.getParamType()).append(", ")
+                    .append(literal(definition.getMin())).append(", ")
+                    .append(literal(definition.getMax())).append(", ")
+                    .append(literal(definition.getPattern())).append(", ")
+                    .append(strings(definition.getAllowedValues())).append(", ")
+                    .append(literal(definition.getCharCmdAlias())).append(", ")
+                    .append(strings(definition.getCmdAliases())).append("));\n");
+        }
+        sb.append(INDENT).append(INDENT).append("return propertyDictionary;\n")
+                .append(INDENT).append("}\n");
+    }
+
+    private void appendKeys(StringBuilder sb) {
+        sb.append('\n').append(INDENT).append("/**\n")
+                .append(INDENT).append(" * Returns the compiled dictionary which the accessors are resolved against, it's shared by all the callers\n")
+                .append(INDENT).append(" */\n")
+                .append(INDENT).append("public static CompiledDictionary getCompiledDictionary() {\n")
+                .append(INDENT).append(INDENT).append("return ").append(KEYS_CLASS_NAME).append(".DICTIONARY;\n")
+                .append(INDENT).append("}\n\n")
+                .append(INDENT).append("public static final class ").append(KEYS_CLASS_NAME).append(" {\n")
+                .append(INDENT).append(INDENT).append("private static final CompiledDictionary DICTIONARY = createDictionary().compile();\n\n");
+        for (PropertyDefinition definition : propertyDictionary.values()) {
+            String valueType = typeName(PropertyKey.valueTypeOf(definition.getParamType()));
+            String constant = constantName(definition.getName());
+            sb.append(INDENT).append(INDENT).append("public static final PropertyKey<").append(valueType).append("> ").append(constant)
+                    .append(" = PropertyKey.of(DICTIONARY, ").append(simpleClassName).append('.').append(constant)
+                    .append(", ").append(valueType).append(".class);\n");
+        }
+        sb.append('\n').append(INDENT).append(INDENT).append("private ").append(KEYS_CLASS_NAME).append("() {\n")
+                .append(INDENT).append(INDENT).append("}\n")
+                .append(INDENT).append("}\n");
+    }
+
+    private void appendAccessors(StringBuilder sb) {
+        Map<String, String> usedNames = new HashMap<>();
+        for (PropertyDefinition definition : propertyDictionary.values()) {
+            String returnType;
+            String prefix = "get";
+            String body;
+            String constant = KEYS_CLASS_NAME + "." + constantName(definition.getName());
+            if (definition.getParamType() == null) {
+                returnType = "boolean";
+                prefix = "is";
+                body = "propertyLoader.getAsBoolean(" + constant + ")";
+            } else {
+                switch (definition.getParamType()) {
+                    case BOOLEAN:
+                        returnType = "boolean";
+                        prefix = "is";
+                        body = "propertyLoader.getAsBoolean(" + constant + ")";
+                        break;
+                    case INTEGER:
+                        returnType = "int";
+                        body = "propertyLoader.getAsInt(" + constant + ")";
+                        break;
+                    case LONG:
+                        returnType = "long";
+                        body = "propertyLoader.getAsLong(" + constant + ")";
+                        break;
+                    case FLOAT:
+                        returnType = "double";
+                        body = "propertyLoader.getAsDouble(" + constant + ")";
+                        break;
+                    case DURATION:
+                        returnType = "java.time.Duration";
+                        body = "propertyLoader.getAsDuration(" + constant + ")";
+                        break;
+                    case DATA_SIZE:
+                        returnType = "long";
+                        body = "propertyLoader.getAsBytes(" + constant + ")";
+                        break;
+                    default:
+                        returnType = "String";
+                        body = "propertyLoader.get(" + constant + ")";
+                }
+            }
+
+            String methodName = prefix + camelCase(definition.getName());
+            checkUnique(usedNames, methodName, definition);
+
+            sb.append('\n');
+            if (definition.getDescription() != null)
+                sb.append(INDENT).append("/**\n").append(INDENT).append(" * ")
+                        .append(definition.getDescription().replace("*/", "*&#47;").replace("\\u", "\\\\u").replace("\n", "\n" + INDENT + " * "))
+                        .append('\n').append(INDENT).append(" */\n");
+            sb.append(INDENT).append("public ").append(returnType).append(' ').append(methodName).append("() {\n")
+                    .append(INDENT).append(INDENT).append("return ").append(body).append(";\n")
+                    .append(INDENT).append("}\n");
+        }
+    }
+
+    private static void checkUnique(Map<String, String> usedNames, String identifier, PropertyDefinition definition) {
+        String previous = usedNames.putIfAbsent(identifier, definition.getName());
+        if (previous != null)
+            throw new IllegalArgumentException("Properties \"" + previous + "\" and \"" + definition.getName() +
+                    "\" produce the same identifier " + identifier);
+    }
+
+    static String constantName(String propertyName) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : splitWords(propertyName)) {
+            if (sb.length() > 0)
+                sb.append('_');
+            sb.append(part.toUpperCase(Locale.ROOT));
+        }
+        return toIdentifier(sb.toString(), '_');
+    }
+
+    static String camelCase(String propertyName) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : splitWords(propertyName))
+            sb.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1).toLowerCase(Locale.ROOT));
+        return toIdentifier(sb.toString(), '_');
+    }
+
+    /**
+     * Splits a property name into words on separators (anything except letters and digits) and on lower-to-upper case changes,
+     * so "DB_PATH", "db.path", "db-path" and "DbPath" give the same words
+     */
+    private static String[] splitWords(String propertyName) {
+        return propertyName.replaceAll("([\\p{Ll}\\d])(\\p{Lu})", "$1_$2").split("[^\\p{L}\\d]+");
+    }
+
+    private static String toIdentifier(String name, char prefix) {
+        String result = name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0)) ? prefix + name : name;
+        if (!isJavaIdentifier(result))
+            throw new IllegalArgumentException("Can't make a java identifier from \"" + name + "\"");
+        return result;
+    }
+
+    private static boolean isJavaIdentifier(String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0)))
+            return false;
+        for (int i = 1; i < name.length(); i++)
+            if (!Character.isJavaIdentifierPart(name.charAt(i)))
+                return false;
+        return true;
+    }
+
+    private static String typeName(Class<?> type) {
+        return type.getPackage().getName().equals("java.lang") ? type.getSimpleName() : type.getName();
+    }
+
+    private static String strings(String[] values) {
+        if (values == null)
+            return "(String[]) null";
+        StringBuilder sb = new StringBuilder("new String[]{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(literal(values[i]));
+        }
+        return sb.append('}').toString();
+    }
+
+    static String literal(String value) {
+        if (value == null)
+            return "null";
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++)
+            appendEscaped(sb, value.charAt(i));
+        return sb.append('"').toString();
+    }
+
+    static String literal(char value) {
+        StringBuilder sb = new StringBuilder("'");
+        if (value == '\'')
+            sb.append("\\'");
+        else
+            appendEscaped(sb, value);
+        return sb.append('\'').toString();
+    }
+
+    private static void appendEscaped(StringBuilder sb, char c) {
+        switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20 || c > 0x7E)
+                    sb.append(String.format("\\u%04x", (int) c));
+                else
+                    sb.append(c);
+        }
+    }
+}
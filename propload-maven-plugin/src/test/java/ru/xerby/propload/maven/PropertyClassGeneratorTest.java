@@ -0,0 +1,116 @@
+package ru.xerby.propload.maven;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.xerby.propload.CompiledDictionary;
+import ru.xerby.propload.PropertyDefinition;
+import ru.xerby.propload.PropertyDictionary;
+import ru.xerby.propload.PropertyKey;
+import ru.xerby.propload.PropertyLoader;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+public class PropertyClassGeneratorTest {
+
+    @Test
+    public void namesTest() {
+        Assert.assertEquals("DbPath", PropertyClassGenerator.camelCase("DB_PATH"));
+        Assert.assertEquals("DelayTime", PropertyClassGenerator.camelCase("DelayTime"));
+        Assert.assertEquals("ServerUrl", PropertyClassGenerator.camelCase("server.url"));
+        Assert.assertEquals("_2faEnabled", PropertyClassGenerator.camelCase("2fa-enabled"));
+        Assert.assertEquals("DELAY_TIME", PropertyClassGenerator.constantName("DelayTime"));
+        Assert.assertEquals("SERVER_URL", PropertyClassGenerator.constantName("server-url"));
+        Assert.assertEquals("\"a\\\"b\\\\c\\n\\u00e9\"", PropertyClassGenerator.literal("a\"b\\c\né"));
+        Assert.assertEquals("'\\u0000'", PropertyClassGenerator.literal('\0'));
+    }
+
+    @Test
+    public void clashingNamesTest() {
+        PropertyDictionary propertyDictionary = new PropertyDictionary(true);
+        propertyDictionary.registerProperty(PropertyDefinition.createKeyValueOptionalProperty("db_path", null));
+        propertyDictionary.registerProperty(PropertyDefinition.createKeyValueOptionalProperty("DB-PATH", null));
+        try {
+            new PropertyClassGenerator(propertyDictionary, "Props").generate();
+            Assert.fail("Should throw exception, but it didn't");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Properties \"DB-PATH\" and \"db_path\" produce the same identifier DB_PATH", e.getMessage());
+        }
+    }
+
+    @Test
+    public void generatedClassTest() throws Exception {
+        PropertyDictionary original = PropertyDictionary.loadFromInputStream(getClass().getClassLoader().getResourceAsStream("dictionary.yaml"));
+        PropertyClassGenerator generator = new PropertyClassGenerator(original, "com.example.AppProperties");
+        Class<?> generated = compile(generator.getPackageName(), generator.getSimpleClassName(), generator.generate());
+
+        PropertyDictionary propertyDictionary = (PropertyDictionary) generated.getMethod("createDictionary").invoke(null);
+        Assert.assertEquals(original.keySet(), propertyDictionary.keySet());
+        PropertyDefinition delayTime = propertyDictionary.get("DelayTime");
+        Assert.assertEquals("DelayTime", delayTime.getName());
+        Assert.assertEquals(original.get("DelayTime").getDescription(), delayTime.getDescription());
+        Assert.assertEquals("60", delayTime.getDefaultValue());
+        Assert.assertEquals(PropertyDefinition.ParamType.INTEGER, delayTime.getParamType());
+        Assert.assertArrayEquals(new String[]{"delay", "delayed", "delay_time"}, delayTime.getCmdAliases());
+        Assert.assertTrue(propertyDictionary.get("DB_PASSWORD").isSensitive());
+        Assert.assertNull(propertyDictionary.get("DEBUG").getParamType());
+        Assert.assertEquals("1", delayTime.getMin());
+        Assert.assertEquals("3600", delayTime.getMax());
+        Assert.assertArrayEquals(new String[]{"yes", "no"}, propertyDictionary.get("VERBOSE").getAllowedValues());
+        Assert.assertEquals(".{6,}", propertyDictionary.get("DB_PASSWORD").getPattern());
+
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        propertyLoader.buildProperties(new String[]{"-d", "--DB_PASSWORD", "secret", "--delay", "5"}, null, null, "empty.properties");
+        Object properties = generated.getConstructor(PropertyLoader.class).newInstance(propertyLoader);
+
+        Assert.assertEquals(5, invoke(properties, "getDelayTime"));
+        Assert.assertEquals("secret", invoke(properties, "getDbPassword"));
+        Assert.assertNull(invoke(properties, "getDbPath"));
+        Assert.assertEquals(true, invoke(properties, "isDebug"));
+        Assert.assertEquals(true, invoke(properties, "isVerbose"));
+        Assert.assertEquals(0.5, invoke(properties, "getRatio"));
+        Assert.assertEquals(Duration.ofSeconds(30), invoke(properties, "getTimeout"));
+        Assert.assertEquals(10L * 1024 * 1024, invoke(properties, "getMaxUpload"));
+        Assert.assertEquals("DelayTime", generated.getField("DELAY_TIME").get(null));
+
+        Class<?> keys = generated.getClasses()[0];
+        PropertyKey<?> delayKey = (PropertyKey<?>) keys.getField("DELAY_TIME").get(null);
+        Assert.assertEquals("DelayTime", delayKey.getName());
+        Assert.assertEquals(Integer.class, delayKey.getValueType());
+        Assert.assertEquals(Duration.class, ((PropertyKey<?>) keys.getField("TIMEOUT").get(null)).getValueType());
+
+        CompiledDictionary compiledDictionary = (CompiledDictionary) generated.getMethod("getCompiledDictionary").invoke(null);
+        PropertyLoader compiledLoader = new PropertyLoader(compiledDictionary);
+        compiledLoader.setLazySourceLoadingEnabled(true);
+        compiledLoader.buildProperties(new String[]{"--DB_PASSWORD", "secret", "--delay", "7"}, null, null, "empty.properties");
+        Object compiledProperties = generated.getConstructor(PropertyLoader.class).newInstance(compiledLoader);
+        Assert.assertEquals(7, invoke(compiledProperties, "getDelayTime"));
+        Assert.assertEquals(false, invoke(compiledProperties, "isDebug"));
+    }
+
+    private static Object invoke(Object target, String methodName) throws Exception {
+        Method method = target.getClass().getMethod(methodName);
+        return method.invoke(target);
+    }
+
+    private static Class<?> compile(String packageName, String simpleName, String source) throws Exception {
+        Path directory = Files.createTempDirectory("propload-generated");
+        Path sourceFile = directory.resolve(simpleName + ".java");
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, "-classpath", System.getProperty("java.class.path"),
+                "-d", directory.toString(), sourceFile.toString());
+        Assert.assertEquals("Generated class must compile:\n" + source, 0, result);
+
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, PropertyClassGeneratorTest.class.getClassLoader());
+        return classLoader.loadClass(packageName + "." + simpleName);
+    }
+}
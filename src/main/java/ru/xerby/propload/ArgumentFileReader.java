@@ -0,0 +1,116 @@
+package ru.xerby.propload;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Reads arguments from an argument file (the {@code @file} argument of the command line) one by one, so the file is never
+ * held in memory as a whole: only the current argument is buffered.
+ * <p>The syntax is the one of the java launcher argument files: arguments are separated by whitespace, a '#' at the start
+ * of an argument comments out the rest of the line, and parts of an argument can be enclosed in single or double quotes
+ * to keep whitespace. Inside quotes a backslash escapes the next char, \n, \r, \t and \f stand for the corresponding chars.
+ * Argument files are not expanded recursively.
+ */
+final class ArgumentFileReader implements Closeable {
+    private final Reader reader;
+    private final String fileName;
+    private final StringBuilder token = new StringBuilder();
+
+    private ArgumentFileReader(Reader reader, String fileName) {
+        this.reader = reader;
+        this.fileName = fileName;
+    }
+
+    static ArgumentFileReader open(Path file) throws IOException {
+        try {
+            return new ArgumentFileReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), file.toString());
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Argument file " + file.toAbsolutePath() + " not found", e);
+        }
+    }
+
+    static ArgumentFileReader of(Reader reader, String fileName) {
+        return new ArgumentFileReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader), fileName);
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return the next argument or null at the end of the file
+     */
+    String next() throws IOException {
+        int c = skipWhitespaceAndComments();
+        if (c < 0)
+            return null;
+
+        token.setLength(0);
+        while (c >= 0 && !Character.isWhitespace(c)) {
+            if (c == '"' || c == '\'')
+                readQuoted((char) c);
+            else
+                token.append((char) c);
+            c = read();
+        }
+        return token.toString();
+    }
+
+    private int skipWhitespaceAndComments() throws IOException {
+        int c = read();
+        while (c >= 0) {
+            if (c == '#') {
+                while (c >= 0 && c != '\n' && c != '\r')
+                    c = read();
+            } else if (!Character.isWhitespace(c))
+                return c;
+            c = read();
+        }
+        return c;
+    }
+
+    private void readQuoted(char quote) throws IOException {
+        int c;
+        while ((c = read()) != quote) {
+            if (c < 0)
+                throw new IllegalArgumentException("Unterminated quote was found in argument file " + fileName);
+            if (c == '\\') {
+                c = read();
+                if (c < 0)
+                    throw new IllegalArgumentException("Unterminated quote was found in argument file " + fileName);
+                token.append(unescape((char) c));
+            } else
+                token.append((char) c);
+        }
+    }
+
+    private static char unescape(char c) {
+        switch (c) {
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'f':
+                return '\f';
+            default:
+                return c;
+        }
+    }
+
+    private int read() throws IOException {
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,164 @@
+package ru.xerby.propload;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiled lookup structure which resolves command-line keys to property definitions without scanning the whole dictionary.
+ * Long names and cmd aliases are stored in one hash map, one-letter aliases are stored in a table indexed by the char itself.
+ * If the dictionary is case-insensitive, all keys are case-folded both when the index is built and when it is queried.
+ * <p>Long keys are also copied into an open-addressing table which is queried with a region of a command line argument,
+ * so looking up a key doesn't create a string for it. ASCII keys are case-folded char by char during the lookup,
+ * other keys are folded as strings.
+ * <p>The index is immutable, so it can be safely shared between threads. Any change of the dictionary requires a new index.
+ */
+final class CmdKeyIndex {
+    private static final int CHAR_TABLE_SIZE = Character.MAX_VALUE + 1;
+
+    private final boolean caseSensitive;
+    private final Map<String, PropertyDefinition> longKeys;
+    private final PropertyDefinition[] charKeys = new PropertyDefinition[CHAR_TABLE_SIZE];
+    private String[] tableKeys;
+    private PropertyDefinition[] tableDefinitions;
+
+    CmdKeyIndex(Collection<PropertyDefinition> definitions, boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.longKeys = new HashMap<>(definitions.size() * 4);
+
+        for (PropertyDefinition definition : definitions) {
+            registerLongKey(definition.getName(), definition);
+            if (definition.getCmdAliases() != null)
+                for (String cmdAlias : definition.getCmdAliases())
+                    registerLongKey(cmdAlias, definition);
+            if (definition.getCharCmdAlias() != '\0')
+                registerCharKey(definition.getCharCmdAlias(), definition);
+        }
+        buildTable();
+    }
+
+    /**
+     * Restores an index which was built earlier, keys must be already case-folded
+     */
+    CmdKeyIndex(boolean caseSensitive, Map<String, PropertyDefinition> longKeys, Map<Character, PropertyDefinition> charKeys) {
+        this.caseSensitive = caseSensitive;
+        this.longKeys = longKeys;
+        for (Map.Entry<Character, PropertyDefinition> e : charKeys.entrySet())
+            this.charKeys[e.getKey()] = e.getValue();
+        buildTable();
+    }
+
+    private void buildTable() {
+        int capacity = Integer.highestOneBit(Math.max(longKeys.size(), 1) * 4 - 1) << 1;
+        tableKeys = new String[capacity];
+        tableDefinitions = new PropertyDefinition[capacity];
+        for (Map.Entry<String, PropertyDefinition> e : longKeys.entrySet()) {
+            String key = e.getKey();
+            int i = hash(key, 0, key.length(), false) & (capacity - 1);
+            while (tableKeys[i] != null)
+                i = (i + 1) & (capacity - 1);
+            tableKeys[i] = key;
+            tableDefinitions[i] = e.getValue();
+        }
+    }
+
+    boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    Map<String, PropertyDefinition> getLongKeys() {
+        return Collections.unmodifiableMap(longKeys);
+    }
+
+    Map<Character, PropertyDefinition> getCharKeys() {
+        Map<Character, PropertyDefinition> result = new HashMap<>();
+        for (int i = 0; i < CHAR_TABLE_SIZE; i++)
+            if (charKeys[i] != null)
+                result.put((char) i, charKeys[i]);
+        return result;
+    }
+
+    PropertyDefinition find(ParsedCmdProperty prop) {
+        if (prop.getKeySource() != null) {
+            PropertyDefinition propertyDefinition = findLongKey(prop.getKeySource(), prop.getKeyStart(), prop.getKeyEnd());
+            if (propertyDefinition != null)
+                return propertyDefinition;
+        }
+        if (prop.getShortKey() != '\0')
+            return charKeys[fold(prop.getShortKey())];
+
+        return null;
+    }
+
+    /**
+     * Finds the definition of the long key which is the [start, end) region of the source
+     */
+    PropertyDefinition findLongKey(String source, int start, int end) {
+        if (!caseSensitive)
+            for (int i = start; i < end; i++)
+                if (source.charAt(i) >= 0x80) {
+                    String folded = fold(source.substring(start, end));
+                    return lookup(folded, 0, folded.length(), false);
+                }
+        return lookup(source, start, end, !caseSensitive);
+    }
+
+    private PropertyDefinition lookup(String source, int start, int end, boolean foldAscii) {
+        int mask = tableKeys.length - 1;
+        for (int i = hash(source, start, end, foldAscii) & mask; tableKeys[i] != null; i = (i + 1) & mask)
+            if (matches(tableKeys[i], source, start, end, foldAscii))
+                return tableDefinitions[i];
+        return null;
+    }
+
+    private static int hash(String source, int start, int end, boolean foldAscii) {
+        int h = 0;
+        for (int i = start; i < end; i++)
+            h = 31 * h + (foldAscii ? foldAscii(source.charAt(i)) : source.charAt(i));
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String key, String source, int start, int end, boolean foldAscii) {
+        if (key.length() != end - start)
+            return false;
+        for (int i = 0; i < key.length(); i++) {
+            char c = source.charAt(start + i);
+            if (key.charAt(i) != (foldAscii ? foldAscii(c) : c))
+                return false;
+        }
+        return true;
+    }
+
+    private static char foldAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private void registerLongKey(String key, PropertyDefinition definition) {
+        if (key == null)
+            return;
+
+        PropertyDefinition previous = longKeys.putIfAbsent(fold(key), definition);
+        if (previous != null && previous != definition)
+            throw new IllegalArgumentException("Command line key \"" + key + "\" is ambiguous, it's used both by property \"" +
+                    previous.getName() + "\" and by property \"" + definition.getName() + "\"");
+    }
+
+    private void registerCharKey(char key, PropertyDefinition definition) {
+        char folded = fold(key);
+        PropertyDefinition previous = charKeys[folded];
+        if (previous != null && previous != definition)
+            throw new IllegalArgumentException("Char command line alias '" + key + "' is ambiguous, it's used both by property \"" +
+                    previous.getName() + "\" and by property \"" + definition.getName() + "\"");
+        charKeys[folded] = definition;
+    }
+
+    private String fold(String key) {
+        return caseSensitive ? key : key.toLowerCase(Locale.ROOT);
+    }
+
+    private char fold(char key) {
+        return caseSensitive ? key : Character.toLowerCase(key);
+    }
+}
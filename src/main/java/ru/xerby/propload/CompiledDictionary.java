@@ -0,0 +1,132 @@
+package ru.xerby.propload;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable form of a {@link PropertyDictionary}, made by {@link PropertyDictionary#compile()}. The names of the properties
+ * and their command line aliases are indexed once, when the dictionary is compiled, and nothing changes afterwards,
+ * so one instance can be shared by any number of {@link PropertyLoader}s on any number of threads.
+ * <p>The definitions themselves are shared with the source dictionary and possibly with other compiled dictionaries, they must
+ * not be changed after compiling. That's why the ordinals of the definitions, their positions in this dictionary, are kept here
+ * and not in the definitions: a definition can have different ordinals in different dictionaries.
+ * Building properties never changes a compiled dictionary: the definition of the property-file key, which a loader
+ * needs to redefine its external property file, lives in a separate extended dictionary built once per compiled one.
+ */
+public final class CompiledDictionary {
+    private final boolean caseSensitive;
+    private final String[] names;
+    private final PropertyDefinition[] definitions;
+    private final Map<String, PropertyDefinition> definitionsByName;
+    private final Map<PropertyDefinition, Integer> ordinals;
+    private final CmdKeyIndex cmdKeyIndex;
+    private volatile CompiledDictionary withPropertyFileDefinition;
+
+    /**
+     * @param dictionary  definitions by their names, in the order of the ordinals
+     * @param cmdKeyIndex index of the command line keys of the same definitions
+     */
+    CompiledDictionary(Map<String, PropertyDefinition> dictionary, boolean caseSensitive, CmdKeyIndex cmdKeyIndex) {
+        this(dictionary.keySet().toArray(new String[0]), dictionary.values().toArray(new PropertyDefinition[0]), caseSensitive, cmdKeyIndex);
+    }
+
+    private CompiledDictionary(String[] names, PropertyDefinition[] definitions, boolean caseSensitive, CmdKeyIndex cmdKeyIndex) {
+        this.caseSensitive = caseSensitive;
+        this.names = names;
+        this.definitions = definitions;
+        this.cmdKeyIndex = cmdKeyIndex;
+        this.definitionsByName = new HashMap<>(names.length * 2);
+        this.ordinals = new IdentityHashMap<>(definitions.length);
+        for (int i = 0; i < definitions.length; i++) {
+            ordinals.put(definitions[i], i);
+            definitionsByName.put(fold(names[i]), definitions[i]);
+        }
+    }
+
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    public int size() {
+        return definitions.length;
+    }
+
+    public PropertyDefinition get(String name) {
+        return name == null ? null : definitionsByName.get(fold(name));
+    }
+
+    public boolean containsKey(String name) {
+        return get(name) != null;
+    }
+
+    /**
+     * Names of the properties in the order of the dictionary
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Definitions of the properties in the order of the dictionary
+     */
+    public List<PropertyDefinition> getDefinitions() {
+        return Collections.unmodifiableList(Arrays.asList(definitions));
+    }
+
+    public PropertyDefinition getByCmdProperty(ParsedCmdProperty prop) {
+        return cmdKeyIndex.find(prop);
+    }
+
+    CmdKeyIndex getCmdKeyIndex() {
+        return cmdKeyIndex;
+    }
+
+    /**
+     * Position of the definition in this dictionary, or -1 if the definition is not in it. Definitions are compared by identity.
+     */
+    int ordinalOf(PropertyDefinition definition) {
+        Integer ordinal = ordinals.get(definition);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Definitions indexed by their ordinals, the array must not be changed
+     */
+    PropertyDefinition[] getDefinitionsByOrdinal() {
+        return definitions;
+    }
+
+    /**
+     * Returns the dictionary extended with the definition of the property-file key, or this dictionary if it already has one.
+     * The definition is appended after all the others, so the ordinals of the other definitions stay the same.
+     */
+    CompiledDictionary withPropertyFileDefinition() {
+        CompiledDictionary extended = withPropertyFileDefinition;
+        if (extended == null) {
+            if (containsKey(PropertyLoader.REDEFINED_PROPERTY_FILE_PROPERTY_NAME))
+                extended = this;
+            else {
+                PropertyDefinition propertyFileDefinition = new PropertyDefinition(PropertyLoader.REDEFINED_PROPERTY_FILE_PROPERTY_NAME,
+                        "Path to external properties file", null, PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false,
+                        PropertyDefinition.ParamType.STRING);
+                String[] extendedNames = Arrays.copyOf(names, names.length + 1);
+                PropertyDefinition[] extendedDefinitions = Arrays.copyOf(definitions, definitions.length + 1);
+                extendedNames[names.length] = propertyFileDefinition.getName();
+                extendedDefinitions[definitions.length] = propertyFileDefinition;
+                extended = new CompiledDictionary(extendedNames, extendedDefinitions, caseSensitive,
+                        new CmdKeyIndex(Arrays.asList(extendedDefinitions), caseSensitive));
+            }
+            withPropertyFileDefinition = extended;
+        }
+        return extended;
+    }
+
+    private String fold(String name) {
+        return caseSensitive ? name : name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,280 @@
+package ru.xerby.propload;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary cache of compiled dictionaries. A cache file keeps the SHA-256 hash of the YAML it was built from, the definitions
+ * under their normalized names and the command line key index, so a dictionary can be restored with one read of the file
+ * and without parsing YAML or re-checking aliases.
+ * <p>Layout (big-endian): magic, format version, case-sensitivity flag, hash, definitions, long keys, char keys.
+ * A definition keeps its constraints after the command line aliases. Strings are stored as a byte length followed by UTF-8 bytes,
+ * arrays of strings as a count followed by the strings, -1 stands for null.
+ */
+@Slf4j
+final class DictionaryCache {
+    private static final int MAGIC = 0x504C4443; // "PLDC"
+    private static final int FORMAT_VERSION = 2;
+    private static final String EXTENSION = ".pldc";
+    private static final int HASH_LENGTH = 32;
+
+    private static final PropertyDefinition.ParametrizationDegree[] PARAMETRIZATIONS = PropertyDefinition.ParametrizationDegree.values();
+    private static final PropertyDefinition.ParamType[] PARAM_TYPES = PropertyDefinition.ParamType.values();
+
+    private DictionaryCache() {
+    }
+
+    /**
+     * Returns the cached dictionary if the cache matches the given YAML, otherwise parses the YAML and rewrites the cache
+     *
+     * @param source identifies the YAML (a resource name or a file path), one cache file is kept per source
+     */
+    static PropertyDictionary load(String source, byte[] yaml, boolean caseSensitive, Path cacheDirectory) {
+        byte[] hash = hash(yaml);
+        Path cacheFile = cacheDirectory.resolve(cacheFileName(source));
+
+        PropertyDictionary cached = read(cacheFile, hash, caseSensitive);
+        if (cached != null)
+            return cached;
+
+        PropertyDictionary propertyDictionary = PropertyDictionary.loadFromInputStream(new ByteArrayInputStream(yaml), caseSensitive);
+        write(cacheFile, hash, propertyDictionary);
+        return propertyDictionary;
+    }
+
+    static PropertyDictionary read(Path cacheFile, byte[] expectedHash, boolean caseSensitive) {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+                ;
+            buffer.flip();
+        } catch (NoSuchFileException e) {
+            log.debug("Dictionary cache " + cacheFile + " doesn't exist yet");
+            return null;
+        } catch (IOException e) {
+            log.debug("Can't read dictionary cache " + cacheFile, e);
+            return null;
+        }
+
+        try {
+            return decode(buffer, expectedHash, caseSensitive, cacheFile);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            log.debug("Dictionary cache " + cacheFile + " is corrupted and will be rebuilt", e);
+            return null;
+        }
+    }
+
+    static void write(Path cacheFile, byte[] hash, PropertyDictionary propertyDictionary) {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path temp = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, encode(hash, propertyDictionary));
+                Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.debug("Dictionary cache " + cacheFile + " was written");
+        } catch (IOException e) {
+            log.debug("Can't write dictionary cache " + cacheFile, e);
+        }
+    }
+
+    private static PropertyDictionary decode(ByteBuffer buffer, byte[] expectedHash, boolean caseSensitive, Path cacheFile) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            log.debug("Dictionary cache " + cacheFile + " has unknown format and will be rebuilt");
+            return null;
+        }
+        boolean cachedCaseSensitive = buffer.get() != 0;
+        byte[] hash = new byte[HASH_LENGTH];
+        buffer.get(hash);
+        if (cachedCaseSensitive != caseSensitive || !Arrays.equals(hash, expectedHash)) {
+            log.debug("Dictionary cache " + cacheFile + " is outdated and will be rebuilt");
+            return null;
+        }
+
+        PropertyDictionary propertyDictionary = new PropertyDictionary(caseSensitive);
+        int definitionCount = readCount(buffer);
+        List<PropertyDefinition> definitions = new ArrayList<>(definitionCount);
+        for (int i = 0; i < definitionCount; i++) {
+            String key = readString(buffer);
+            PropertyDefinition definition = readDefinition(buffer);
+            definitions.add(definition);
+            propertyDictionary.put(key, definition);
+        }
+
+        int longKeyCount = readCount(buffer);
+        Map<String, PropertyDefinition> longKeys = new HashMap<>(longKeyCount * 2);
+        for (int i = 0; i < longKeyCount; i++)
+            longKeys.put(readString(buffer), definitions.get(buffer.getInt()));
+        int charKeyCount = readCount(buffer);
+        Map<Character, PropertyDefinition> charKeys = new HashMap<>(charKeyCount * 2);
+        for (int i = 0; i < charKeyCount; i++)
+            charKeys.put(buffer.getChar(), definitions.get(buffer.getInt()));
+
+        propertyDictionary.setCmdKeyIndex(new CmdKeyIndex(caseSensitive, longKeys, charKeys));
+        log.debug("Dictionary was restored from cache " + cacheFile);
+        return propertyDictionary;
+    }
+
+    private static PropertyDefinition readDefinition(ByteBuffer buffer) {
+        String name = readString(buffer);
+        String description = readString(buffer);
+        String defaultValue = readString(buffer);
+        byte parametrization = buffer.get();
+        byte paramType = buffer.get();
+        boolean isRequired = buffer.get() != 0;
+        boolean isSensitive = buffer.get() != 0;
+        char charCmdAlias = buffer.getChar();
+        String[] cmdAliases = readStrings(buffer);
+        String min = readString(buffer);
+        String max = readString(buffer);
+        String pattern = readString(buffer);
+        String[] allowedValues = readStrings(buffer);
+
+        return new PropertyDefinition(name, description, defaultValue, PARAMETRIZATIONS[parametrization], isRequired, isSensitive,
+                paramType < 0 ? null : PARAM_TYPES[paramType], min, max, pattern, allowedValues, charCmdAlias, cmdAliases);
+    }
+
+    private static byte[] encode(byte[] hash, PropertyDictionary propertyDictionary) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeBoolean(propertyDictionary.caseSensitive);
+        out.write(hash);
+
+        Map<PropertyDefinition, Integer> positions = new IdentityHashMap<>();
+        out.writeInt(propertyDictionary.size());
+        for (Map.Entry<String, PropertyDefinition> entry : propertyDictionary.entrySet()) {
+            positions.put(entry.getValue(), positions.size());
+            writeString(out, entry.getKey());
+            writeDefinition(out, entry.getValue());
+        }
+
+        CmdKeyIndex index = propertyDictionary.getCmdKeyIndex();
+        Map<String, PropertyDefinition> longKeys = index.getLongKeys();
+        out.writeInt(longKeys.size());
+        for (Map.Entry<String, PropertyDefinition> entry : longKeys.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(positions.get(entry.getValue()));
+        }
+        Map<Character, PropertyDefinition> charKeys = index.getCharKeys();
+        out.writeInt(charKeys.size());
+        for (Map.Entry<Character, PropertyDefinition> entry : charKeys.entrySet()) {
+            out.writeChar(entry.getKey());
+            out.writeInt(positions.get(entry.getValue()));
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeDefinition(DataOutputStream out, PropertyDefinition definition) throws IOException {
+        writeString(out, definition.getName());
+        writeString(out, definition.getDescription());
+        writeString(out, definition.getDefaultValue());
+        out.writeByte(definition.getParametrization().ordinal());
+        out.writeByte(definition.getParamType() == null ? -1 : definition.getParamType().ordinal());
+        out.writeBoolean(definition.isRequired());
+        out.writeBoolean(definition.isSensitive());
+        out.writeChar(definition.getCharCmdAlias());
+        writeStrings(out, definition.getCmdAliases());
+        writeString(out, definition.getMin());
+        writeString(out, definition.getMax());
+        writeString(out, definition.getPattern());
+        writeStrings(out, definition.getAllowedValues());
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values == null ? -1 : values.length);
+        if (values != null)
+            for (String value : values)
+                writeString(out, value);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Every counted element takes at least one byte, so a count above the remaining size means the file is broken
+     */
+    private static int readCount(ByteBuffer buffer) {
+        return checkCount(buffer.getInt(), buffer);
+    }
+
+    private static int checkCount(int count, ByteBuffer buffer) {
+        if (count < 0 || count > buffer.remaining())
+            throw new IllegalArgumentException("Wrong element count " + count);
+        return count;
+    }
+
+    private static String[] readStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0)
+            return null;
+        String[] values = new String[checkCount(count, buffer)];
+        for (int i = 0; i < count; i++)
+            values[i] = readString(buffer);
+        return values;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    static String cacheFileName(String source) {
+        int separator = Math.max(source.lastIndexOf('/'), source.lastIndexOf('\\'));
+        String simpleName = source.substring(Math.max(separator, source.indexOf(':')) + 1);
+        return simpleName + "-" + toHex(hash(source.getBytes(StandardCharsets.UTF_8))).substring(0, 16) + EXTENSION;
+    }
+
+    static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return result.toString();
+    }
+}
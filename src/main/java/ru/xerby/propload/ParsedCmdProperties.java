@@ -1,83 +1,167 @@
 package ru.xerby.propload;
 
 import lombok.EqualsAndHashCode;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-
+import java.util.Map;
+
+/**
+ * Keys of the command line with their values. The arguments are scanned char by char, and each key and value is recorded
+ * as a region of its argument, see {@link ParsedCmdProperty}. Arguments of argument files are fed to the tokenizer
+ * as they are read. Lookups by key go through a hash index which is built
+ * on the first lookup.
+ */
 @Slf4j
 @EqualsAndHashCode
 class ParsedCmdProperties implements Iterable<ParsedCmdProperty> {
     private final List<ParsedCmdProperty> properties = new ArrayList<>();
+    @EqualsAndHashCode.Exclude
+    private Map<String, ParsedCmdProperty> index;
 
-    @SuppressWarnings("java:S3776")
     public static ParsedCmdProperties parse(String[] args, boolean isWindows, boolean throwExceptionIfUnboundTokenFound) {
-        String propname = null;
-        String propval = null;
-        boolean lastSymbolIsKey = false;
-        boolean oneHyphenMode = false;
+        return parse(args, isWindows, throwExceptionIfUnboundTokenFound, false);
+    }
 
+    /**
+     * @param expandArgumentFiles if true, then an argument "@path" is replaced with the arguments read from the file, see {@link ArgumentFileReader}.
+     *                            The file is streamed into the tokenizer argument by argument. "@@text" stands for the argument "@text".
+     */
+    public static ParsedCmdProperties parse(String[] args, boolean isWindows, boolean throwExceptionIfUnboundTokenFound, boolean expandArgumentFiles) {
         ParsedCmdProperties res = new ParsedCmdProperties();
         if (args == null) return res;
-        for (String key : args) {
-            String token = key.strip();
-            if (token.startsWith("/") && isWindows && token.length() > 1) {
-                if (propname != null) {
-                    res.add(propname, propval, false, oneHyphenMode);
-                }
-                propname = token.substring(1);
-                lastSymbolIsKey = true;
-                oneHyphenMode = false;
-            } else if (token.startsWith("--") && token.length() > 2) {
-                if (propname != null) {
-                    res.add(propname, null, false, oneHyphenMode);
-                }
-                propname = token.substring(2);
-                lastSymbolIsKey = true;
-                oneHyphenMode = false;
-            } else if (token.startsWith("-") && token.length() > 1) {
-                if (propname != null) {
-                    res.add(propname, null, false, oneHyphenMode);
-                }
-                propname = token.substring(1);
-                lastSymbolIsKey = true;
-                oneHyphenMode = true;
-            } else if (lastSymbolIsKey) {
-                propval = token;
+        Tokenizer tokenizer = new Tokenizer(res, args, isWindows, throwExceptionIfUnboundTokenFound);
+        for (String arg : args) {
+            if (expandArgumentFiles && arg.startsWith("@@"))
+                tokenizer.accept(arg.substring(1));
+            else if (expandArgumentFiles && arg.length() > 1 && arg.charAt(0) == '@')
+                expandArgumentFile(Paths.get(arg.substring(1)), tokenizer);
+            else
+                tokenizer.accept(arg);
+        }
+        tokenizer.finish();
+        return res;
+    }
+
+    @SneakyThrows
+    private static void expandArgumentFile(Path file, Tokenizer tokenizer) {
+        try (ArgumentFileReader reader = ArgumentFileReader.open(file)) {
+            tokenizer.argumentFileName = reader.getFileName();
+            String arg;
+            while ((arg = reader.next()) != null)
+                tokenizer.accept(arg);
+        } finally {
+            tokenizer.argumentFileName = null;
+        }
+    }
+
+    /**
+     * Splits arguments into keys and values. Arguments are passed one by one, a key which waits for its value is kept
+     * as a region of its argument until the next argument comes.
+     */
+    private static final class Tokenizer {
+        private final ParsedCmdProperties res;
+        private final String[] args;
+        private final boolean isWindows;
+        private final boolean throwExceptionIfUnboundTokenFound;
+        private String keySource;
+        private int keyStart;
+        private int keyEnd;
+        private boolean lastSymbolIsKey;
+        private boolean oneHyphenMode;
+        private String argumentFileName;
+
+        private Tokenizer(ParsedCmdProperties res, String[] args, boolean isWindows, boolean throwExceptionIfUnboundTokenFound) {
+            this.res = res;
+            this.args = args;
+            this.isWindows = isWindows;
+            this.throwExceptionIfUnboundTokenFound = throwExceptionIfUnboundTokenFound;
+        }
+
+        void accept(String arg) {
+            int start = skipWhitespace(arg, 0, arg.length());
+            int end = trimWhitespace(arg, start, arg.length());
+            int length = end - start;
+
+            if (isWindows && length > 1 && arg.charAt(start) == '/')
+                startKey(arg, start + 1, end, false);
+            else if (length > 2 && arg.charAt(start) == '-' && arg.charAt(start + 1) == '-')
+                startKey(arg, start + 2, end, false);
+            else if (length > 1 && arg.charAt(start) == '-')
+                startKey(arg, start + 1, end, true);
+            else if (lastSymbolIsKey) {
+                addKey(arg, start, end, false);
                 lastSymbolIsKey = false;
-                res.add(propname, propval, false, oneHyphenMode);
-                propname = null;
-                propval = null;
-                oneHyphenMode = false;
             } else {
+                String source = argumentFileName != null ? "argument file " + argumentFileName : Arrays.toString(args).replace(", ", " ");
                 if (throwExceptionIfUnboundTokenFound)
-                    throw new RuntimeException("Dangling token found: " + key + " in " + Arrays.toString(args).replace(", ", " "));
+                    throw new RuntimeException("Dangling token found: " + arg + " in " + source);
                 else
-                    log.debug("Dangling token found: " + key + "\n in " + Arrays.toString(args).replace(", ", " "));
+                    log.debug("Dangling token found: " + arg + "\n in " + source);
             }
 
-            if (propname != null && propname.contains("=")) {
-                propval = propname.substring(propname.indexOf("=") + 1).strip();
-                propname = propname.substring(0, propname.indexOf("=")).strip();
-
-                lastSymbolIsKey = false;
-                res.add(propname, propval, true, oneHyphenMode);
-                propname = null;
-                propval = null;
-                oneHyphenMode = false;
+            if (keySource != null) {
+                int equalSign = keySource.indexOf('=', keyStart);
+                if (equalSign >= 0 && equalSign < keyEnd) {
+                    int valueStart = skipWhitespace(keySource, equalSign + 1, keyEnd);
+                    int valueEnd = trimWhitespace(keySource, valueStart, keyEnd);
+                    keyStart = skipWhitespace(keySource, keyStart, equalSign);
+                    keyEnd = trimWhitespace(keySource, keyStart, equalSign);
+                    lastSymbolIsKey = false;
+                    addKey(keySource, valueStart, valueEnd, true);
+                }
             }
         }
-        if (propname != null) {
-            res.add(propname, propval, false, oneHyphenMode);
+
+        void finish() {
+            if (keySource != null)
+                addKey(null, 0, 0, false);
+        }
+
+        private void startKey(String arg, int start, int end, boolean oneHyphenMode) {
+            if (keySource != null)
+                addKey(null, 0, 0, false);
+            keySource = arg;
+            keyStart = start;
+            keyEnd = end;
+            lastSymbolIsKey = true;
+            this.oneHyphenMode = oneHyphenMode;
+        }
+
+        private void addKey(String valueSource, int valueStart, int valueEnd, boolean isSurelyParametrized) {
+            if (oneHyphenMode) {
+                if (keyStart == keyEnd)
+                    throw new IllegalArgumentException("Empty key was found in " + Arrays.toString(args).replace(", ", " "));
+                res.add(new ParsedCmdProperty(null, 0, 0, keySource.charAt(keyStart), valueSource, valueStart, valueEnd, isSurelyParametrized));
+            } else
+                res.add(new ParsedCmdProperty(keySource, keyStart, keyEnd, '\0', valueSource, valueStart, valueEnd, isSurelyParametrized));
+            keySource = null;
+            oneHyphenMode = false;
+        }
+
+        private static int skipWhitespace(String s, int start, int end) {
+            while (start < end && Character.isWhitespace(s.charAt(start)))
+                start++;
+            return start;
+        }
+
+        private static int trimWhitespace(String s, int start, int end) {
+            while (end > start && Character.isWhitespace(s.charAt(end - 1)))
+                end--;
+            return end;
         }
-        return res;
     }
 
     void add(ParsedCmdProperty parsedCmdProperty) {
         properties.add(parsedCmdProperty);
+        index = null;
     }
 
     public void add(String key) {
@@ -93,50 +177,41 @@ class ParsedCmdProperties implements Iterable<ParsedCmdProperty> {
             throw new RuntimeException("Either longKey or short key mustn't be be null");
         if (value == null && isSurelyParametrized)
             throw new RuntimeException("Value can't be null if isSurelyParametrized is true");
-        properties.add(new ParsedCmdProperty(key, ch, value, isSurelyParametrized));
-    }
-
-    private void add(String str, String val, boolean isSurelyParametrized, boolean isOneHyphenMode) {
-        if (isOneHyphenMode)
-            add(null, str.charAt(0), val, isSurelyParametrized);
-        else
-            add(str, '\0', val, isSurelyParametrized);
+        add(new ParsedCmdProperty(key, ch, value, isSurelyParametrized));
     }
 
     public ParsedCmdProperty getParsedCmdProperty(String key) {
-        for (ParsedCmdProperty parsedCmdProperty : properties) {
-            if (parsedCmdProperty.getKey().equals(key)) {
-                return parsedCmdProperty;
-            }
-        }
-        return null;
+        return getIndex().get(key);
     }
 
     public String getValue(String key) {
-        for (ParsedCmdProperty parsedCmdProperty : properties) {
-            if (parsedCmdProperty.getKey().equals(key)) {
-                return parsedCmdProperty.getValue();
-            }
-        }
-        return null;
+        ParsedCmdProperty parsedCmdProperty = getIndex().get(key);
+        return parsedCmdProperty == null ? null : parsedCmdProperty.getValue();
     }
 
     public boolean isSurelyParametrized(String key) {
-        for (ParsedCmdProperty parsedCmdProperty : properties) {
-            if (parsedCmdProperty.getKey().equals(key)) {
-                return parsedCmdProperty.isSurelyParametrized();
-            }
-        }
-        return false;
+        ParsedCmdProperty parsedCmdProperty = getIndex().get(key);
+        return parsedCmdProperty != null && parsedCmdProperty.isSurelyParametrized();
     }
 
     public boolean containsKey(String key) {
-        for (ParsedCmdProperty parsedCmdProperty : properties) {
-            if (parsedCmdProperty.getKey().equals(key)) {
-                return true;
-            }
+        return getIndex().containsKey(key);
+    }
+
+    /**
+     * Index of the properties by key, if a key occurs more than once, the first occurrence is indexed
+     */
+    private Map<String, ParsedCmdProperty> getIndex() {
+        if (index == null) {
+            index = new HashMap<>(properties.size() * 2);
+            for (ParsedCmdProperty parsedCmdProperty : properties)
+                index.putIfAbsent(parsedCmdProperty.getKey(), parsedCmdProperty);
         }
-        return false;
+        return index;
+    }
+
+    public int size() {
+        return properties.size();
     }
 
     public boolean isEmpty() {
@@ -145,23 +220,13 @@ class ParsedCmdProperties implements Iterable<ParsedCmdProperty> {
 
     public void clear() {
         properties.clear();
+        index = null;
     }
 
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (ParsedCmdProperty parsedCmdProperty : properties) {
-            if (parsedCmdProperty.getLongKey() == null)
-                sb.append("-").append(parsedCmdProperty.getShortKey());
-            else
-                sb.append("--").append(parsedCmdProperty.getLongKey());
-
-            if (parsedCmdProperty.isSurelyParametrized()) {
-                sb.append("=").append(parsedCmdProperty.getValue());
-            } else if (parsedCmdProperty.getValue() != null) {
-                sb.append(" ").append(parsedCmdProperty.getValue());
-            }
-            sb.append(" ");
-        }
+        for (ParsedCmdProperty parsedCmdProperty : properties)
+            sb.append(parsedCmdProperty).append(" ");
         sb.deleteCharAt(sb.length() - 1);
 
         return sb.toString();
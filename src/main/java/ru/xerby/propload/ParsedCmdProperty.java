@@ -1,15 +1,27 @@
 package ru.xerby.propload;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import java.util.Objects;
 
-@Data
-@AllArgsConstructor
+/**
+ * One key of the command line with its value. The long key and the value are kept as regions of the original arguments,
+ * and strings are created only when {@link #getLongKey()} or {@link #getValue()} is called, so the keys which are only
+ * looked up in the {@link CmdKeyIndex} never become strings.
+ */
 class ParsedCmdProperty {
-    private final String longKey;
+    private final String keySource;
+    private final int keyStart;
+    private final int keyEnd;
     private final char shortKey;
-    private final String value;
+    private final String valueSource;
+    private final int valueStart;
+    private final int valueEnd;
     private final boolean isSurelyParametrized;
+    private String longKey;
+    private String value;
+
+    public ParsedCmdProperty(String longKey, char shortKey, String value, boolean isSurelyParametrized) {
+        this(longKey, 0, longKey == null ? 0 : longKey.length(), shortKey, value, 0, value == null ? 0 : value.length(), isSurelyParametrized);
+    }
 
     public ParsedCmdProperty(String longKey, String value, boolean isSurelyParametrized) {
         this(longKey, '\0', value, isSurelyParametrized);
@@ -19,23 +31,87 @@ class ParsedCmdProperty {
         this(null, shortKey, value, isSurelyParametrized);
     }
 
+    /**
+     * @param keySource  argument which contains the long key, null for a short key
+     * @param valueSource argument which contains the value, null if there is no value
+     */
+    ParsedCmdProperty(String keySource, int keyStart, int keyEnd, char shortKey,
+                      String valueSource, int valueStart, int valueEnd, boolean isSurelyParametrized) {
+        this.keySource = keySource;
+        this.keyStart = keyStart;
+        this.keyEnd = keyEnd;
+        this.shortKey = shortKey;
+        this.valueSource = valueSource;
+        this.valueStart = valueStart;
+        this.valueEnd = valueEnd;
+        this.isSurelyParametrized = isSurelyParametrized;
+    }
+
+    public String getLongKey() {
+        if (longKey == null && keySource != null)
+            longKey = keySource.substring(keyStart, keyEnd);
+        return longKey;
+    }
+
+    public char getShortKey() {
+        return shortKey;
+    }
+
+    public String getValue() {
+        if (value == null && valueSource != null)
+            value = valueSource.substring(valueStart, valueEnd);
+        return value;
+    }
+
+    public boolean isSurelyParametrized() {
+        return isSurelyParametrized;
+    }
+
+    public String getKey() {
+        return keySource != null ? getLongKey() : String.valueOf(shortKey);
+    }
+
+    String getKeySource() {
+        return keySource;
+    }
+
+    int getKeyStart() {
+        return keyStart;
+    }
+
+    int getKeyEnd() {
+        return keyEnd;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ParsedCmdProperty))
+            return false;
+        ParsedCmdProperty that = (ParsedCmdProperty) o;
+        return shortKey == that.shortKey && isSurelyParametrized == that.isSurelyParametrized &&
+                Objects.equals(getLongKey(), that.getLongKey()) && Objects.equals(getValue(), that.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getLongKey(), shortKey, getValue(), isSurelyParametrized);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        if (longKey != null)
-            sb.append("--").append(longKey);
+        if (keySource != null)
+            sb.append("--").append(keySource, keyStart, keyEnd);
         else
             sb.append("-").append(shortKey);
 
         if (isSurelyParametrized)
-            sb.append("=").append(value);
-        else if (value != null)
-            sb.append(" ").append(value);
+            sb.append("=").append(getValue());
+        else if (valueSource != null)
+            sb.append(" ").append(valueSource, valueStart, valueEnd);
 
         return sb.toString();
     }
-
-    public String getKey() {
-        return longKey != null ? longKey : String.valueOf(shortKey);
-    }
 }
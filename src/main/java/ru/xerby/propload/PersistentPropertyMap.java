@@ -0,0 +1,745 @@
+package ru.xerby.propload;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Immutable map of resolved properties stored as a hash array mapped trie. Each level of the trie consumes 5 bits
+ * of the key hash, and a node keeps only its occupied slots, selected by a 32-bit bitmap. A change copies only the path
+ * from the root to the changed entry, so a map made by k calls of {@link #with} or {@link #without}, or by a {@link Builder}
+ * which changed k keys of this map, allocates O(k log n) and shares all the other nodes with it; old generations stay valid
+ * as long as they're referenced. A full build of a loader refills a {@link #rebuilder} of the previous generation, so
+ * it also allocates only for the properties which changed, but it still visits all of them.
+ * <p>Keys are case-folded for hashing and comparison unless the map is case-sensitive. Each entry is parsed once, when it's created, according to the param type of its definition,
+ * so the typed getters of {@link PropertySnapshot} neither parse strings nor box values, and unchanged entries keep
+ * their parsed values across generations. Iteration order is the order of the hashes.
+ */
+final class PersistentPropertyMap extends AbstractMap<String, String> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    /**
+     * Nodes at this depth hold entries with equal hashes in a plain array
+     */
+    private static final int COLLISION_SHIFT = 35;
+    private static final Node EMPTY_NODE = new Node(null, 0, new Object[0]);
+    private static final PersistentPropertyMap EMPTY_CASE_SENSITIVE = new PersistentPropertyMap(true, EMPTY_NODE, 0);
+    private static final PersistentPropertyMap EMPTY_CASE_INSENSITIVE = new PersistentPropertyMap(false, EMPTY_NODE, 0);
+
+    private final boolean caseSensitive;
+    private final Node root;
+    private final int size;
+    private Set<Map.Entry<String, String>> entrySet;
+
+    private PersistentPropertyMap(boolean caseSensitive, Node root, int size) {
+        this.caseSensitive = caseSensitive;
+        this.root = root;
+        this.size = size;
+    }
+
+    static PersistentPropertyMap empty(boolean caseSensitive) {
+        return caseSensitive ? EMPTY_CASE_SENSITIVE : EMPTY_CASE_INSENSITIVE;
+    }
+
+    static String fold(String key, boolean caseSensitive) {
+        return caseSensitive ? key : key.toLowerCase(Locale.ROOT);
+    }
+
+    static int hash(String foldedKey) {
+        int h = foldedKey.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String get(Object key) {
+        PropertyEntry entry = key instanceof String ? getEntry((String) key) : null;
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && getEntry((String) key) != null;
+    }
+
+    PropertyEntry getEntry(String key) {
+        if (key == null)
+            return null;
+        String foldedKey = fold(key, caseSensitive);
+        return getEntry(foldedKey, hash(foldedKey));
+    }
+
+    /**
+     * Finds the entry of the handle using the folded name and the hash which the handle computed in advance
+     */
+    PropertyEntry getEntry(PropertyKey<?> key) {
+        return caseSensitive ? getEntry(key.getName(), key.getNameHash()) : getEntry(key.getFoldedName(), key.getFoldedNameHash());
+    }
+
+    private PropertyEntry getEntry(String foldedKey, int hash) {
+        return getEntry(root, foldedKey, hash);
+    }
+
+    private static PropertyEntry getEntry(Node root, String foldedKey, int hash) {
+        Node node = root;
+        for (int shift = 0; ; shift += BITS) {
+            if (shift >= COLLISION_SHIFT)
+                return node.findCollision(foldedKey);
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0)
+                return null;
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (slot instanceof PropertyEntry) {
+                PropertyEntry entry = (PropertyEntry) slot;
+                return entry.hash == hash && entry.foldedKey.equals(foldedKey) ? entry : null;
+            }
+            node = (Node) slot;
+        }
+    }
+
+    /**
+     * Returns the map with the property set to the value, or this map if the property is already set under the same key
+     * to the same value with the same definition
+     *
+     * @param definition definition of the property, its param type selects how the value is parsed; null for an unknown property
+     */
+    PersistentPropertyMap with(String key, String value, PropertyDefinition definition) {
+        String foldedKey = fold(key, caseSensitive);
+        int hash = hash(foldedKey);
+        PropertyEntry existing = getEntry(foldedKey, hash);
+        if (existing != null && existing.key.equals(key) && existing.definition == definition && Objects.equals(existing.value, value))
+            return this;
+
+        PropertyEntry entry = new PropertyEntry(key, foldedKey, hash, value, definition);
+        return new PersistentPropertyMap(caseSensitive, root.put(entry, 0, null), existing == null ? size + 1 : size);
+    }
+
+    PersistentPropertyMap without(String key) {
+        String foldedKey = fold(key, caseSensitive);
+        int hash = hash(foldedKey);
+        if (getEntry(foldedKey, hash) == null)
+            return this;
+
+        Node newRoot = root.remove(foldedKey, hash, 0, null);
+        return new PersistentPropertyMap(caseSensitive, newRoot == null ? EMPTY_NODE : newRoot, size - 1);
+    }
+
+    /**
+     * Returns a mutable copy of this map which shares all the nodes with it until they're changed, see {@link Builder}
+     *
+     * @param dictionary gives the definitions of the properties put into the builder
+     */
+    Builder builder(CompiledDictionary dictionary) {
+        return new Builder(this, dictionary, false);
+    }
+
+    /**
+     * Returns a builder which is empty for its readers but keeps the nodes of this map: a property put to the same key,
+     * value and definition as in this map reuses its entry, and {@link Builder#build()} drops the properties which weren't put.
+     * Refilling it with the same properties builds a map which shares all the unchanged subtrees with this one.
+     *
+     * @param dictionary gives the definitions of the properties put into the builder
+     */
+    Builder rebuilder(CompiledDictionary dictionary) {
+        return new Builder(this, dictionary, true);
+    }
+
+    /**
+     * Calls the consumer with the key of each property which differs between the maps: it's set only in one of them or
+     * it has different values. A changed property is reported under its key in this map. Subtrees shared by both maps are skipped
+     * and differing entries are compared one to one, so comparing two generations costs as much as the paths to their differences.
+     * Both maps must have the same case sensitivity.
+     */
+    void forEachDifference(PersistentPropertyMap other, Consumer<String> consumer) {
+        difference(root, other.root, 0, consumer);
+    }
+
+    private static void difference(Object left, Object right, int shift, Consumer<String> consumer) {
+        if (left == right)
+            return;
+        if (left instanceof Node && right instanceof Node && shift < COLLISION_SHIFT) {
+            Node leftNode = (Node) left;
+            Node rightNode = (Node) right;
+            for (int i = 0; i <= MASK; i++)
+                difference(leftNode.slotAt(i), rightNode.slotAt(i), shift + BITS, consumer);
+            return;
+        }
+        if (left == null || right == null) {
+            forEachEntry(left == null ? right : left, entry -> consumer.accept(entry.key));
+            return;
+        }
+        if (left instanceof PropertyEntry) {
+            difference((PropertyEntry) left, right, true, consumer);
+            return;
+        }
+        if (right instanceof PropertyEntry) {
+            difference((PropertyEntry) right, left, false, consumer);
+            return;
+        }
+
+        //both are collision nodes
+        Map<String, PropertyEntry> leftEntries = new HashMap<>();
+        forEachEntry(left, entry -> leftEntries.put(entry.foldedKey, entry));
+        forEachEntry(right, entry -> {
+            PropertyEntry leftEntry = leftEntries.remove(entry.foldedKey);
+            if (leftEntry == null)
+                consumer.accept(entry.key);
+            else if (!Objects.equals(leftEntry.value, entry.value))
+                consumer.accept(leftEntry.key);
+        });
+        for (PropertyEntry entry : leftEntries.values())
+            consumer.accept(entry.key);
+    }
+
+    /**
+     * Compares a single entry of one map with the slot at the same position of the other map: another entry or a subtree
+     */
+    private static void difference(PropertyEntry entry, Object other, boolean isEntryLeft, Consumer<String> consumer) {
+        if (other instanceof PropertyEntry) {
+            PropertyEntry otherEntry = (PropertyEntry) other;
+            if (!entry.foldedKey.equals(otherEntry.foldedKey)) {
+                consumer.accept(entry.key);
+                consumer.accept(otherEntry.key);
+            } else if (!Objects.equals(entry.value, otherEntry.value))
+                consumer.accept(isEntryLeft ? entry.key : otherEntry.key);
+            return;
+        }
+
+        boolean[] isFound = new boolean[1];
+        forEachEntry(other, otherEntry -> {
+            if (!entry.foldedKey.equals(otherEntry.foldedKey))
+                consumer.accept(otherEntry.key);
+            else {
+                isFound[0] = true;
+                if (!Objects.equals(entry.value, otherEntry.value))
+                    consumer.accept(isEntryLeft ? entry.key : otherEntry.key);
+            }
+        });
+        if (!isFound[0])
+            consumer.accept(entry.key);
+    }
+
+    private static void forEachEntry(Object slot, Consumer<PropertyEntry> consumer) {
+        if (slot instanceof PropertyEntry)
+            consumer.accept((PropertyEntry) slot);
+        else if (slot != null)
+            for (Object child : ((Node) slot).slots)
+                forEachEntry(child, consumer);
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (entrySet == null)
+            entrySet = new AbstractSet<Map.Entry<String, String>>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new EntryIterator(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        return entrySet;
+    }
+
+    /**
+     * Node of the trie. Slots hold entries and child nodes in the order of their bit positions; at the collision depth
+     * the bitmap is unused and slots hold the entries with equal hashes.
+     * <p>A node created by a {@link Builder} keeps the edit token of the builder and is changed in place by it until the builder
+     * builds a map; all the other nodes, including those of built maps, are never changed. The changing methods take
+     * the token of the caller, null for a persistent change.
+     */
+    private static final class Node {
+        final Object edit;
+        int bitmap;
+        Object[] slots;
+
+        Node(Object edit, int bitmap, Object[] slots) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        Object slotAt(int position) {
+            int bit = 1 << position;
+            return (bitmap & bit) == 0 ? null : slots[Integer.bitCount(bitmap & (bit - 1))];
+        }
+
+        PropertyEntry findCollision(String foldedKey) {
+            for (Object slot : slots)
+                if (((PropertyEntry) slot).foldedKey.equals(foldedKey))
+                    return (PropertyEntry) slot;
+            return null;
+        }
+
+        Node put(PropertyEntry entry, int shift, Object edit) {
+            if (shift >= COLLISION_SHIFT) {
+                for (int i = 0; i < slots.length; i++)
+                    if (((PropertyEntry) slots[i]).foldedKey.equals(entry.foldedKey))
+                        return withSlot(i, entry, edit);
+                return withSlots(0, inserted(slots, slots.length, entry), edit);
+            }
+
+            int bit = 1 << ((entry.hash >>> shift) & MASK);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0)
+                return withSlots(bitmap | bit, inserted(slots, index, entry), edit);
+
+            Object slot = slots[index];
+            if (slot instanceof Node) {
+                Node child = ((Node) slot).put(entry, shift + BITS, edit);
+                return child == slot ? this : withSlot(index, child, edit);
+            }
+            PropertyEntry existing = (PropertyEntry) slot;
+            if (existing.hash == entry.hash && existing.foldedKey.equals(entry.foldedKey))
+                return withSlot(index, entry, edit);
+            return withSlot(index, merge(existing, entry, shift + BITS, edit), edit);
+        }
+
+        private static Node merge(PropertyEntry first, PropertyEntry second, int shift, Object edit) {
+            if (shift >= COLLISION_SHIFT)
+                return new Node(edit, 0, new Object[]{first, second});
+
+            int firstPosition = (first.hash >>> shift) & MASK;
+            int secondPosition = (second.hash >>> shift) & MASK;
+            if (firstPosition == secondPosition)
+                return new Node(edit, 1 << firstPosition, new Object[]{merge(first, second, shift + BITS, edit)});
+            return new Node(edit, (1 << firstPosition) | (1 << secondPosition),
+                    firstPosition < secondPosition ? new Object[]{first, second} : new Object[]{second, first});
+        }
+
+        /**
+         * @return the node without the entry, null if the node becomes empty
+         */
+        Node remove(String foldedKey, int hash, int shift, Object edit) {
+            if (shift >= COLLISION_SHIFT) {
+                for (int i = 0; i < slots.length; i++)
+                    if (((PropertyEntry) slots[i]).foldedKey.equals(foldedKey))
+                        return slots.length == 1 ? null : withSlots(0, removed(slots, i), edit);
+                return this;
+            }
+
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0)
+                return this;
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            Object slot = slots[index];
+            if (slot instanceof Node) {
+                Node child = ((Node) slot).remove(foldedKey, hash, shift + BITS, edit);
+                if (child == slot)
+                    return this;
+                if (child != null)
+                    return withSlot(index, child, edit);
+            } else if (!((PropertyEntry) slot).foldedKey.equals(foldedKey))
+                return this;
+
+            return bitmap == bit ? null : withSlots(bitmap & ~bit, removed(slots, index), edit);
+        }
+
+        private boolean isEditable(Object edit) {
+            return edit != null && this.edit == edit;
+        }
+
+        private Node withSlot(int index, Object slot, Object edit) {
+            if (isEditable(edit)) {
+                slots[index] = slot;
+                return this;
+            }
+            return new Node(edit, bitmap, replaced(slots, index, slot));
+        }
+
+        private Node withSlots(int bitmap, Object[] slots, Object edit) {
+            if (isEditable(edit)) {
+                this.bitmap = bitmap;
+                this.slots = slots;
+                return this;
+            }
+            return new Node(edit, bitmap, slots);
+        }
+
+        private static Object[] replaced(Object[] slots, int index, Object slot) {
+            Object[] copy = slots.clone();
+            copy[index] = slot;
+            return copy;
+        }
+
+        private static Object[] inserted(Object[] slots, int index, Object slot) {
+            Object[] copy = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            copy[index] = slot;
+            System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+            return copy;
+        }
+
+        private static Object[] removed(Object[] slots, int index) {
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+            return copy;
+        }
+    }
+
+    /**
+     * Mutable map of properties over the nodes of a persistent map. The builder copies a node the first time it changes it
+     * and then changes the copy in place, so loading n properties into an empty builder allocates O(n), and changing k properties
+     * of a big map copies only the paths to them. {@link #build()} returns the properties as a persistent map; the nodes
+     * of that map are never changed again, later changes of the builder copy them.
+     * <p>Keys are case-folded unless the map is case-sensitive; a key which is already set keeps its case, as in a sorted map
+     * with a case-insensitive comparator. The builder is not thread-safe and its entry set is read-only.
+     * <p>A {@link PersistentPropertyMap#rebuilder} also remembers the folded keys put since it was created: only they are
+     * visible, and the other entries of the base map stay in the trie until {@link #build()} removes them.
+     */
+    static final class Builder extends AbstractMap<String, String> {
+        private final boolean caseSensitive;
+        private final CompiledDictionary dictionary;
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+        /**
+         * Folded keys put since the builder was created, null if all the entries of the trie are visible
+         */
+        private Set<String> written;
+        private Set<Map.Entry<String, String>> entrySet;
+
+        private Builder(PersistentPropertyMap base, CompiledDictionary dictionary, boolean isEmpty) {
+            this.caseSensitive = base.caseSensitive;
+            this.dictionary = dictionary;
+            this.root = base.root;
+            this.size = isEmpty ? 0 : base.size;
+            this.written = isEmpty ? new HashSet<>() : null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String get(Object key) {
+            PropertyEntry entry = key instanceof String ? getEntry((String) key) : null;
+            return entry == null ? null : entry.value;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && getEntry((String) key) != null;
+        }
+
+        private PropertyEntry getEntry(String key) {
+            String foldedKey = fold(key, caseSensitive);
+            if (written != null && !written.contains(foldedKey))
+                return null;
+            return PersistentPropertyMap.getEntry(root, foldedKey, hash(foldedKey));
+        }
+
+        @Override
+        public String put(String key, String value) {
+            String foldedKey = fold(key, caseSensitive);
+            int hash = hash(foldedKey);
+            PropertyEntry existing = PersistentPropertyMap.getEntry(root, foldedKey, hash);
+            boolean isSet = written == null ? existing != null : !written.add(foldedKey);
+            String entryKey = isSet ? existing.key : key;
+            PropertyDefinition definition = dictionary.get(entryKey);
+            if (existing == null || !existing.key.equals(entryKey) || existing.definition != definition || !Objects.equals(existing.value, value))
+                root = root.put(new PropertyEntry(entryKey, foldedKey, hash, value, definition), 0, edit);
+
+            if (!isSet) {
+                size++;
+                return null;
+            }
+            return existing.value;
+        }
+
+        @Override
+        public String remove(Object key) {
+            if (!(key instanceof String))
+                return null;
+            String foldedKey = fold((String) key, caseSensitive);
+            int hash = hash(foldedKey);
+            PropertyEntry existing = PersistentPropertyMap.getEntry(root, foldedKey, hash);
+            if (existing == null || written != null && !written.remove(foldedKey))
+                return null;
+
+            if (written == null) {
+                Node newRoot = root.remove(foldedKey, hash, 0, edit);
+                root = newRoot == null ? EMPTY_NODE : newRoot;
+            }
+            size--;
+            return existing.value;
+        }
+
+        @Override
+        public void clear() {
+            if (written == null)
+                root = EMPTY_NODE;
+            else
+                written.clear();
+            size = 0;
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            if (entrySet == null)
+                entrySet = new AbstractSet<Map.Entry<String, String>>() {
+                    @Override
+                    public Iterator<Map.Entry<String, String>> iterator() {
+                        return new EntryIterator(root, written);
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            return entrySet;
+        }
+
+        /**
+         * Returns the properties as a persistent map. The builder stays usable, but it doesn't change the nodes of the map.
+         */
+        PersistentPropertyMap build() {
+            if (written != null) {
+                List<PropertyEntry> unwritten = new ArrayList<>();
+                forEachEntry(root, entry -> {
+                    if (!written.contains(entry.foldedKey))
+                        unwritten.add(entry);
+                });
+                for (PropertyEntry entry : unwritten) {
+                    Node newRoot = root.remove(entry.foldedKey, entry.hash, 0, edit);
+                    root = newRoot == null ? EMPTY_NODE : newRoot;
+                }
+                written = null;
+            }
+            edit = new Object();
+            return new PersistentPropertyMap(caseSensitive, root, size);
+        }
+    }
+
+    /**
+     * Depth-first iterator over the entries, the trie is at most 8 levels deep
+     */
+    private static final class EntryIterator implements Iterator<Map.Entry<String, String>> {
+        private final Node[] nodes = new Node[COLLISION_SHIFT / BITS + 1];
+        private final int[] positions = new int[nodes.length];
+        private final Set<String> foldedKeys;
+        private int depth;
+        private PropertyEntry next;
+
+        EntryIterator(Node root) {
+            this(root, null);
+        }
+
+        /**
+         * @param foldedKeys keys of the entries to return, null for all the entries
+         */
+        EntryIterator(Node root, Set<String> foldedKeys) {
+            this.foldedKeys = foldedKeys;
+            nodes[0] = root;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (positions[depth] >= node.slots.length) {
+                    depth--;
+                    continue;
+                }
+                Object slot = node.slots[positions[depth]++];
+                if (slot instanceof PropertyEntry) {
+                    if (foldedKeys != null && !foldedKeys.contains(((PropertyEntry) slot).foldedKey))
+                        continue;
+                    next = (PropertyEntry) slot;
+                    return;
+                }
+                depth++;
+                nodes[depth] = (Node) slot;
+                positions[depth] = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (next == null)
+                throw new NoSuchElementException();
+            PropertyEntry entry = next;
+            advance();
+            return entry;
+        }
+    }
+
+    /**
+     * Immutable property with its value parsed according to the param type of its definition. Values which can't be
+     * parsed are left unparsed, the getters parse them again and report the error.
+     */
+    static final class PropertyEntry implements Map.Entry<String, String> {
+        private static final int HAS_INT = 1;
+        private static final int HAS_LONG = 2;
+        private static final int HAS_DOUBLE = 4;
+        private static final int HAS_BOOLEAN = 8;
+        private static final int HAS_DURATION = 16;
+        private static final int HAS_DATA_SIZE = 32;
+
+        final String key;
+        final String foldedKey;
+        final int hash;
+        final String value;
+        final PropertyDefinition definition;
+        private long longValue;
+        private double doubleValue;
+        private int parsed;
+
+        PropertyEntry(String key, String foldedKey, int hash, String value, PropertyDefinition definition) {
+            this.key = key;
+            this.foldedKey = foldedKey;
+            this.hash = hash;
+            this.value = value;
+            this.definition = definition;
+            if (value != null && definition != null && definition.getParamType() != null)
+                parse(definition.getParamType());
+        }
+
+        @SuppressWarnings("java:S108")
+        private void parse(PropertyDefinition.ParamType paramType) {
+            try {
+                switch (paramType) {
+                    case INTEGER:
+                        longValue = Integer.parseInt(value);
+                        parsed = HAS_INT | HAS_LONG;
+                        break;
+                    case LONG:
+                        longValue = Long.parseLong(value);
+                        parsed = HAS_LONG;
+                        break;
+                    case FLOAT:
+                        doubleValue = Double.parseDouble(value);
+                        parsed = HAS_DOUBLE;
+                        break;
+                    case BOOLEAN:
+                        longValue = PropertyLoader.parseBoolean(value, key) ? 1 : 0;
+                        parsed = HAS_BOOLEAN;
+                        break;
+                    case DURATION:
+                        longValue = PropertyLoader.parseDuration(value, key);
+                        parsed = HAS_DURATION;
+                        break;
+                    case DATA_SIZE:
+                        longValue = PropertyLoader.parseDataSize(value, key);
+                        parsed = HAS_DATA_SIZE;
+                        break;
+                    default:
+                        break;
+                }
+            } catch (IllegalArgumentException ignored) {
+                //the value stays unparsed, the getter will parse it again and throw a detailed exception
+            }
+        }
+
+        boolean hasInt() {
+            return (parsed & HAS_INT) != 0;
+        }
+
+        boolean hasLong() {
+            return (parsed & HAS_LONG) != 0;
+        }
+
+        boolean hasDouble() {
+            return (parsed & HAS_DOUBLE) != 0;
+        }
+
+        boolean hasBoolean() {
+            return (parsed & HAS_BOOLEAN) != 0;
+        }
+
+        boolean hasDuration() {
+            return (parsed & HAS_DURATION) != 0;
+        }
+
+        boolean hasDataSize() {
+            return (parsed & HAS_DATA_SIZE) != 0;
+        }
+
+        int getInt() {
+            return (int) longValue;
+        }
+
+        long getLong() {
+            return longValue;
+        }
+
+        double getDouble() {
+            return doubleValue;
+        }
+
+        boolean getBoolean() {
+            return longValue != 0;
+        }
+
+        long getNanos() {
+            return longValue;
+        }
+
+        long getBytes() {
+            return longValue;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String setValue(String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+            return key.equals(that.getKey()) && Objects.equals(value, that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
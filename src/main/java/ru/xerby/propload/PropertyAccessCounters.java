@@ -0,0 +1,94 @@
+package ru.xerby.propload;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Read counters of the properties of a dictionary, one {@link LongAdder} per definition. An adder spreads concurrent
+ * increments over its cells, so threads reading the same hot property don't contend on one counter.
+ * <p>If the dictionary of the loader is changed, the counters are rebuilt once, carrying the counts
+ * of the definitions which are still in the dictionary.
+ */
+final class PropertyAccessCounters {
+    private final Supplier<CompiledDictionary> dictionary;
+    private volatile Counters counters;
+
+    /**
+     * @param dictionary supplies the current compiled dictionary of the loader
+     */
+    PropertyAccessCounters(Supplier<CompiledDictionary> dictionary) {
+        this.dictionary = dictionary;
+        this.counters = new Counters(dictionary.get(), null);
+    }
+
+    void increment(String name) {
+        Counters current = current();
+        PropertyDefinition definition = current.dictionary.get(name);
+        if (definition != null)
+            current.increment(definition);
+    }
+
+    void increment(PropertyDefinition definition) {
+        Counters current = current();
+        if (!current.increment(definition)) {
+            //the definition is not of this dictionary, e.g. the handle was resolved against another one
+            PropertyDefinition own = current.dictionary.get(definition.getName());
+            if (own != null)
+                current.increment(own);
+        }
+    }
+
+    private Counters current() {
+        Counters current = counters;
+        return current.dictionary == dictionary.get() ? current : rebuild();
+    }
+
+    private synchronized Counters rebuild() {
+        Counters current = counters;
+        CompiledDictionary compiledDictionary = dictionary.get();
+        if (current.dictionary != compiledDictionary) {
+            current = new Counters(compiledDictionary, current);
+            counters = current;
+        }
+        return current;
+    }
+
+    PropertyAccessReport report() {
+        Counters current = current();
+        Map<String, Long> readCounts = new LinkedHashMap<>();
+        for (PropertyDefinition definition : current.dictionary.getDefinitions())
+            readCounts.put(definition.getName(), current.adders.get(definition).sum());
+        return new PropertyAccessReport(readCounts);
+    }
+
+    private static final class Counters {
+        final CompiledDictionary dictionary;
+        /**
+         * Adders by the definitions of the dictionary, compared by identity
+         */
+        final Map<PropertyDefinition, LongAdder> adders;
+
+        Counters(CompiledDictionary dictionary, Counters previous) {
+            this.dictionary = dictionary;
+            this.adders = new IdentityHashMap<>(dictionary.size());
+            for (PropertyDefinition definition : dictionary.getDefinitions()) {
+                LongAdder adder = previous == null ? null : previous.adders.get(definition);
+                adders.put(definition, adder != null ? adder : new LongAdder());
+            }
+        }
+
+        /**
+         * @return false if the definition is not of this dictionary
+         */
+        boolean increment(PropertyDefinition definition) {
+            LongAdder adder = adders.get(definition);
+            if (adder == null)
+                return false;
+            adder.increment();
+            return true;
+        }
+    }
+}
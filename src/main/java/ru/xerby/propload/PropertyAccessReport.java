@@ -0,0 +1,70 @@
+package ru.xerby.propload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Read counts of the properties of a {@link PropertyLoader} since access counting was enabled, see
+ * {@link PropertyLoader#getAccessReport()}. The report is a copy, it doesn't change as the properties are read further.
+ */
+public final class PropertyAccessReport {
+    private final Map<String, Long> readCounts;
+
+    PropertyAccessReport(Map<String, Long> readCounts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(readCounts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Long> ranked = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : entries)
+            ranked.put(entry.getKey(), entry.getValue());
+        this.readCounts = Collections.unmodifiableMap(ranked);
+    }
+
+    /**
+     * Read counts of all the properties of the dictionary, from the most read to the never read ones
+     */
+    public Map<String, Long> getReadCounts() {
+        return readCounts;
+    }
+
+    public long getReadCount(String name) {
+        Long count = readCounts.get(name);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Names of the most read properties, at most limit of them, from the most read one. Never read properties are not included.
+     */
+    public List<String> getHotProperties(int limit) {
+        List<String> hotProperties = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : readCounts.entrySet()) {
+            if (hotProperties.size() >= limit || entry.getValue() == 0)
+                break;
+            hotProperties.add(entry.getKey());
+        }
+        return hotProperties;
+    }
+
+    /**
+     * Names of the properties which weren't read at all
+     */
+    public SortedSet<String> getNeverReadProperties() {
+        SortedSet<String> neverRead = new TreeSet<>();
+        for (Map.Entry<String, Long> entry : readCounts.entrySet())
+            if (entry.getValue() == 0)
+                neverRead.add(entry.getKey());
+        return neverRead;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : readCounts.entrySet())
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        return sb.toString();
+    }
+}
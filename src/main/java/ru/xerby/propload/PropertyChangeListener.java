@@ -0,0 +1,18 @@
+package ru.xerby.propload;
+
+/**
+ * Receives the changes of the subscribed properties after a build of a {@link PropertyLoader}, see
+ * {@link PropertyLoader#addChangeListener(String, PropertyChangeListener)}.
+ * <p>Changes are delivered on the change listener executor of the loader, never in the thread which rebuilds the properties.
+ * A listener gets one call per build with all the changes of its properties, and calls to one listener never overlap:
+ * if the properties are rebuilt while the listener is still busy, the changes of all the builds it missed are merged
+ * into its next call. An exception thrown by a listener is logged.
+ */
+@FunctionalInterface
+public interface PropertyChangeListener {
+
+    /**
+     * @param diff the changes of the subscribed properties only, never empty
+     */
+    void onChange(PropertyDiff diff);
+}
@@ -0,0 +1,81 @@
+package ru.xerby.propload;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * Subscription of a {@link PropertyChangeListener} to the keys accepted by a filter. Builds which happen while a delivery
+ * is scheduled or running are merged: the next delivery compares the snapshot before the first of them with the snapshot
+ * after the last one, so a value which changed and changed back isn't reported at all.
+ */
+@Slf4j
+final class PropertyChangeSubscription {
+    private final Predicate<String> keyFilter;
+    private final PropertyChangeListener listener;
+    private PropertySnapshot pendingBefore;
+    private PropertySnapshot pendingAfter;
+    private boolean isScheduled;
+
+    PropertyChangeSubscription(Predicate<String> keyFilter, PropertyChangeListener listener) {
+        this.keyFilter = keyFilter;
+        this.listener = listener;
+    }
+
+    PropertyChangeListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Schedules a delivery if any of the changed keys is subscribed and no delivery is scheduled yet
+     */
+    void offer(PropertyDiff diff, Executor executor) {
+        if (diff.getChangedKeys().stream().noneMatch(keyFilter))
+            return;
+
+        synchronized (this) {
+            if (pendingBefore == null)
+                pendingBefore = diff.getBefore();
+            pendingAfter = diff.getAfter();
+            if (isScheduled)
+                return;
+            isScheduled = true;
+        }
+        try {
+            executor.execute(this::deliver);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                isScheduled = false;
+            }
+            log.warn("Changes of properties can't be delivered to listener " + listener, e);
+        }
+    }
+
+    private void deliver() {
+        while (true) {
+            PropertySnapshot before;
+            PropertySnapshot after;
+            synchronized (this) {
+                if (pendingBefore == null) {
+                    isScheduled = false;
+                    return;
+                }
+                before = pendingBefore;
+                after = pendingAfter;
+                pendingBefore = null;
+                pendingAfter = null;
+            }
+
+            PropertyDiff diff = PropertyDiff.between(before, after).filter(keyFilter);
+            if (diff.isEmpty())
+                continue;
+            try {
+                listener.onChange(diff);
+            } catch (RuntimeException e) {
+                log.warn("Property change listener " + listener + " failed", e);
+            }
+        }
+    }
+}
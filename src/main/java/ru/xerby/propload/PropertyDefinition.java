@@ -1,9 +1,12 @@
 package ru.xerby.propload;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.util.Optional;
@@ -28,8 +31,31 @@ public class PropertyDefinition {
     private final ParamType paramType;
     private final String[] cmdAliases;
     private final char charCmdAlias;
+    /**
+     * The least allowed value of a numeric property, in the format of the values of the property. Null if there's no limit.
+     */
+    private final String min;
+    /**
+     * The greatest allowed value of a numeric property, in the format of the values of the property. Null if there's no limit.
+     */
+    private final String max;
+    /**
+     * Regular expression which the whole value must match. Null if any value of the param type is allowed.
+     */
+    private final String pattern;
+    /**
+     * The only values which the property can have. Null if any value of the param type is allowed.
+     */
+    private final String[] allowedValues;
+    /**
+     * Check of the param type and the constraints, compiled once when the definition is created
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    private final PropertyValidator validator;
     private String name;
 
+    @JsonCreator
     public PropertyDefinition(
             @JsonProperty("name") String name,
             @JsonProperty("description") String description,
@@ -38,6 +64,10 @@ public class PropertyDefinition {
             @JsonProperty("required") boolean isRequired,
             @JsonProperty("sensitive") boolean isSensitive,
             @JsonProperty("param_type") ParamType paramType,
+            @JsonProperty("min") String min,
+            @JsonProperty("max") String max,
+            @JsonProperty("pattern") String pattern,
+            @JsonProperty("allowed_values") String[] allowedValues,
             @JsonProperty("char_cmd_alias") char charCmdAlias,
             @JsonProperty("cmd_aliases") String... cmdAliases) {
         this.name = name;
@@ -47,9 +77,20 @@ public class PropertyDefinition {
         this.isRequired = isRequired;
         this.isSensitive = isSensitive;
         this.paramType = paramType;
+        this.min = min;
+        this.max = max;
+        this.pattern = pattern;
+        this.allowedValues = allowedValues;
         this.cmdAliases = cmdAliases;
         this.charCmdAlias = charCmdAlias;
         validate();
+        this.validator = PropertyValidator.of(this);
+        validateDefaultValue();
+    }
+
+    public PropertyDefinition(String name, String description, String defaultValue, ParametrizationDegree parametrized, boolean isRequired,
+                              boolean isSensitive, ParamType paramType, char charCmdAlias, String... cmdAliases) {
+        this(name, description, defaultValue, parametrized, isRequired, isSensitive, paramType, null, null, null, null, charCmdAlias, cmdAliases);
     }
 
     public ParametrizationDegree getParametrization() {
@@ -92,6 +133,20 @@ public class PropertyDefinition {
             throw new IllegalArgumentException("Can't be isRequired and hasDefaultValue at the same time");
     }
 
+    /**
+     * The default value must satisfy the constraints, if there are any
+     */
+    private void validateDefaultValue() {
+        if (defaultValue == null || validator == PropertyValidator.of(getParamType()))
+            return;
+
+        try {
+            validator.validate(name, defaultValue);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Default value doesn't satisfy the constraints: " + e.getMessage(), e);
+        }
+    }
+
     protected void setName(String name) {
         if (this.name != null)
             throw new IllegalArgumentException("It's prohibit to change name of property after it was created");
@@ -99,6 +154,10 @@ public class PropertyDefinition {
         this.name = name;
     }
 
+    PropertyValidator getValidator() {
+        return validator;
+    }
+
     /**
      * Can or should a property have a parameter and how should it be designated
      * <p>If PARAMETER_PROHIBITED, then you can't use property with parameter. If parameter will be used, then exception will be thrown.
@@ -109,6 +168,9 @@ public class PropertyDefinition {
 
     /**
      * What type of parameter can be used with a property. STRING by default
+     * <p>DURATION is an amount with a time unit, like "60s" or "250ms", or an ISO-8601 duration. DATA_SIZE is an amount
+     * of bytes with an optional binary unit, like "10MB". Both are parsed into longs when they're loaded, see
+     * {@link PropertyLoader#getAsDuration(String)} and {@link PropertyLoader#getAsBytes(String)}.
      */
-    public enum ParamType {BOOLEAN, STRING, INTEGER, LONG, FLOAT}
+    public enum ParamType {BOOLEAN, STRING, INTEGER, LONG, FLOAT, DURATION, DATA_SIZE}
 }
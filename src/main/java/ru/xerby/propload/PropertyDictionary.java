@@ -1,15 +1,27 @@
 package ru.xerby.propload;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import lombok.SneakyThrows;
-import lombok.Synchronized;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 
 /**
@@ -19,10 +31,19 @@ import java.util.TreeMap;
  * situations when they are absent.
  * Properties are case-insensitive by default, but it can be changed using a one-parameter constructor.
  * The most straightforward way to load properties is to use the static method loadFromFile or loadFromResource.
+ * The views of the dictionary (keySet, values, entrySet, headMap, etc.) are read-only, change it with registerProperty or
+ * the methods of the map itself.
  */
 @SuppressWarnings("java:S2160")
 public class PropertyDictionary extends TreeMap<String, PropertyDefinition> {
+    /**
+     * ObjectReader is immutable and thread-safe, so one instance is shared by all loads instead of building a new mapper each time
+     */
+    private static final ObjectReader DEFINITION_READER = new ObjectMapper(new YAMLFactory()).readerFor(PropertyDefinition.class);
+
     public final boolean caseSensitive;
+    private transient volatile CmdKeyIndex cmdKeyIndex;
+    private transient volatile CompiledDictionary compiledDictionary;
 
     public PropertyDictionary(boolean caseSensitive) {
         super(caseSensitive ? String::compareTo : String::compareToIgnoreCase);
@@ -30,7 +51,7 @@ public class PropertyDictionary extends TreeMap<String, PropertyDefinition> {
     }
 
     public static PropertyDictionary loadFromResource(String fileName) {
-        return loadFromInputStream(PropertyDictionary.class.getClassLoader().getResourceAsStream(fileName), false);
+        return loadFromResource(fileName, false);
     }
 
     private boolean areKeysEqual(String o1, String o2) {
@@ -51,76 +72,286 @@ public class PropertyDictionary extends TreeMap<String, PropertyDefinition> {
 
     @SneakyThrows
     public static PropertyDictionary loadFromInputStream(InputStream stream, boolean caseSensitive) {
-        PropertyDictionary propertyDictionary = new ObjectMapper(new YAMLFactory()).readValue(stream, PropertyDictionary.class);
-
-        propertyDictionary.adjustNames();
-        return propertyDictionary;
+        try (JsonParser parser = DEFINITION_READER.createParser(stream)) {
+            return load(parser, caseSensitive);
+        }
     }
 
     @SneakyThrows
-    @SuppressWarnings("java:S2864")
     public static PropertyDictionary loadFromFile(File file, boolean caseSensitive) {
-        PropertyDictionary propertyDictionary = new ObjectMapper(new YAMLFactory()).readValue(file, PropertyDictionary.class);
+        try (JsonParser parser = DEFINITION_READER.createParser(file)) {
+            return load(parser, caseSensitive);
+        }
+    }
+
+    /**
+     * Reads the YAML document token by token: each root key is bound to a {@link PropertyDefinition} right away
+     * and registered under its normalized name, so the document is never bound to an intermediate map.
+     */
+    private static PropertyDictionary load(JsonParser parser, boolean caseSensitive) throws IOException {
+        PropertyDictionary propertyDictionary = new PropertyDictionary(caseSensitive);
+
+        JsonToken token = parser.nextToken();
+        if (token == null)
+            return propertyDictionary;
+        if (token != JsonToken.START_OBJECT)
+            throw new IllegalArgumentException("Property dictionary must be a map of property definitions, but it starts with " + token);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL)
+                propertyDictionary.put(key, new PropertyDefinition(key, null, null, null, false, null));
+            else
+                propertyDictionary.putWithAdjustedName(key, DEFINITION_READER.readValue(parser));
+        }
 
-        propertyDictionary.adjustNames();
+        propertyDictionary.cmdKeyIndex = new CmdKeyIndex(propertyDictionary.values(), caseSensitive);
         return propertyDictionary;
     }
 
-    private boolean areKeysEqual(char o1, char o2) {
-        return caseSensitive ? o1 == o2 : Character.toLowerCase(o1) == Character.toLowerCase(o2);
+    /**
+     * Loads the dictionary from a YAML resource using a binary cache in the given directory. The cache holds the compiled dictionary
+     * (definitions, normalized names and the command line index) together with a hash of the YAML content, so next loads skip
+     * YAML parsing as long as the resource is unchanged. If the hash doesn't match or the cache can't be read, the YAML is parsed
+     * and the cache is rewritten.
+     */
+    @SneakyThrows
+    public static PropertyDictionary loadFromResource(String fileName, boolean caseSensitive, Path cacheDirectory) {
+        byte[] yaml;
+        try (InputStream stream = PropertyDictionary.class.getClassLoader().getResourceAsStream(fileName)) {
+            if (stream == null)
+                throw new IllegalArgumentException("Resource " + fileName + " not found");
+            yaml = stream.readAllBytes();
+        }
+        return DictionaryCache.load("resource:" + fileName, yaml, caseSensitive, cacheDirectory);
+    }
+
+    /**
+     * Loads the dictionary from a YAML file using a binary cache in the given directory,
+     * see {@link #loadFromResource(String, boolean, Path)}
+     */
+    @SneakyThrows
+    public static PropertyDictionary loadFromFile(File file, boolean caseSensitive, Path cacheDirectory) {
+        return DictionaryCache.load("file:" + file.getAbsolutePath(), Files.readAllBytes(file.toPath()), caseSensitive, cacheDirectory);
+    }
+
+    void setCmdKeyIndex(CmdKeyIndex cmdKeyIndex) {
+        this.cmdKeyIndex = cmdKeyIndex;
     }
 
     public void registerProperty(PropertyDefinition value) {
         this.put(value.getName(), value);
     }
 
-    @Synchronized
-    private void adjustNames() {
-        Map<String, String> changedProperties = null;
-        for (Map.Entry<String, PropertyDefinition> e : entrySet()) {
-            if (e.getValue() == null)
-                put(e.getKey(), new PropertyDefinition(e.getKey(), null, null, null, false, null));
-            else if (e.getValue().getName() == null || e.getValue().getName().isEmpty())
-                e.getValue().setName(e.getKey());
-            else if (!areKeysEqual(e.getValue().getName(), e.getKey())) {
-                if (!e.getKey().replaceAll("[^A-Za-z0-9]", "").equalsIgnoreCase(e.getValue().getName().replaceAll("[^A-Za-z0-9]", "")))
-                    throw new IllegalArgumentException("Property name must be almost the same as key, they can use different case or hyphens or dots, but alphanumerical characters must be equal (" + e.getKey() + " vs " + e.getValue().getName() + ")");
-                if (changedProperties == null)
-                    changedProperties = new HashMap<>();
-                changedProperties.put(e.getKey(), e.getValue().getName());
-            }
+    @Override
+    public PropertyDefinition put(String key, PropertyDefinition value) {
+        invalidate();
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends PropertyDefinition> map) {
+        invalidate();
+        super.putAll(map);
+    }
+
+    @Override
+    public PropertyDefinition remove(Object key) {
+        invalidate();
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        invalidate();
+        super.clear();
+    }
+
+    @Override
+    public PropertyDefinition putIfAbsent(String key, PropertyDefinition value) {
+        invalidate();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public PropertyDefinition computeIfAbsent(String key, Function<? super String, ? extends PropertyDefinition> mappingFunction) {
+        invalidate();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public PropertyDefinition computeIfPresent(String key, BiFunction<? super String, ? super PropertyDefinition, ? extends PropertyDefinition> remappingFunction) {
+        invalidate();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public PropertyDefinition compute(String key, BiFunction<? super String, ? super PropertyDefinition, ? extends PropertyDefinition> remappingFunction) {
+        invalidate();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public PropertyDefinition merge(String key, PropertyDefinition value, BiFunction<? super PropertyDefinition, ? super PropertyDefinition, ? extends PropertyDefinition> remappingFunction) {
+        invalidate();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public PropertyDefinition replace(String key, PropertyDefinition value) {
+        invalidate();
+        return super.replace(key, value);
+    }
+
+    @Override
+    public boolean replace(String key, PropertyDefinition oldValue, PropertyDefinition newValue) {
+        invalidate();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super PropertyDefinition, ? extends PropertyDefinition> function) {
+        invalidate();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        invalidate();
+        return super.remove(key, value);
+    }
+
+    @Override
+    public Map.Entry<String, PropertyDefinition> pollFirstEntry() {
+        invalidate();
+        return super.pollFirstEntry();
+    }
+
+    @Override
+    public Map.Entry<String, PropertyDefinition> pollLastEntry() {
+        invalidate();
+        return super.pollLastEntry();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return readOnlyView().navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<String> navigableKeySet() {
+        return readOnlyView().navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<String> descendingKeySet() {
+        return readOnlyView().descendingKeySet();
+    }
+
+    @Override
+    public Collection<PropertyDefinition> values() {
+        return readOnlyView().values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, PropertyDefinition>> entrySet() {
+        return readOnlyView().entrySet();
+    }
+
+    @Override
+    public NavigableMap<String, PropertyDefinition> descendingMap() {
+        return readOnlyView().descendingMap();
+    }
+
+    @Override
+    public NavigableMap<String, PropertyDefinition> subMap(String fromKey, boolean fromInclusive, String toKey, boolean toInclusive) {
+        return readOnlyView().subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public SortedMap<String, PropertyDefinition> subMap(String fromKey, String toKey) {
+        return readOnlyView().subMap(fromKey, toKey);
+    }
+
+    @Override
+    public NavigableMap<String, PropertyDefinition> headMap(String toKey, boolean inclusive) {
+        return readOnlyView().headMap(toKey, inclusive);
+    }
+
+    @Override
+    public SortedMap<String, PropertyDefinition> headMap(String toKey) {
+        return readOnlyView().headMap(toKey);
+    }
+
+    @Override
+    public NavigableMap<String, PropertyDefinition> tailMap(String fromKey, boolean inclusive) {
+        return readOnlyView().tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public SortedMap<String, PropertyDefinition> tailMap(String fromKey) {
+        return readOnlyView().tailMap(fromKey);
+    }
+
+    /**
+     * Views of the map can't be changed, because their changes would bypass the invalidation of the cached indexes.
+     * The descending view of the descending view covers the whole map without calling the overridden view methods.
+     */
+    private NavigableMap<String, PropertyDefinition> readOnlyView() {
+        return Collections.unmodifiableNavigableMap(super.descendingMap().descendingMap());
+    }
+
+    private void invalidate() {
+        cmdKeyIndex = null;
+        compiledDictionary = null;
+    }
+
+    private void putWithAdjustedName(String key, PropertyDefinition definition) {
+        if (definition.getName() == null || definition.getName().isEmpty()) {
+            definition.setName(key);
+            put(key, definition);
+        } else if (areKeysEqual(definition.getName(), key))
+            put(key, definition);
+        else {
+            if (!key.replaceAll("[^A-Za-z0-9]", "").equalsIgnoreCase(definition.getName().replaceAll("[^A-Za-z0-9]", "")))
+                throw new IllegalArgumentException("Property name must be almost the same as key, they can use different case or hyphens or dots, but alphanumerical characters must be equal (" + key + " vs " + definition.getName() + ")");
+            put(definition.getName(), definition);
         }
-        if (changedProperties != null)
-            for (Map.Entry<String, String> e : changedProperties.entrySet()) {
-                put(e.getValue(), get(e.getKey()));
-                remove(e.getKey());
-            }
     }
 
     public static PropertyDictionary loadFromResource(String fileName, boolean caseSensitive) {
-        return loadFromInputStream(PropertyDictionary.class.getClassLoader().getResourceAsStream(fileName), caseSensitive);
+        InputStream stream = PropertyDictionary.class.getClassLoader().getResourceAsStream(fileName);
+        if (stream == null)
+            throw new IllegalArgumentException("Resource " + fileName + " not found");
+        return loadFromInputStream(stream, caseSensitive);
     }
 
     public PropertyDefinition getByCmdProperty(ParsedCmdProperty prop) {
-        for (PropertyDefinition propertyDefinition : this.values()) {
-            if (isKeyForProperty(prop, propertyDefinition))
-                return propertyDefinition;
-        }
-
-        return null;
+        return getCmdKeyIndex().find(prop);
     }
 
-    private boolean isKeyForProperty(ParsedCmdProperty prop, PropertyDefinition propertyDefinition) {
-        if (areKeysEqual(propertyDefinition.getName(), prop.getLongKey()))
-            return true;
-        if (prop.getShortKey() != '\0' && areKeysEqual(propertyDefinition.getCharCmdAlias(), prop.getShortKey()))
-            return true;
-        if (propertyDefinition.getCmdAliases() != null)
-            for (String cmdAlias : propertyDefinition.getCmdAliases()) {
-                if (areKeysEqual(cmdAlias, prop.getLongKey()))
-                    return true;
-            }
+    /**
+     * Returns the compiled index of command line keys, building it if the dictionary was changed since the last call.
+     */
+    CmdKeyIndex getCmdKeyIndex() {
+        CmdKeyIndex index = cmdKeyIndex;
+        if (index == null) {
+            index = new CmdKeyIndex(values(), caseSensitive);
+            cmdKeyIndex = index;
+        }
+        return index;
+    }
 
-        return false;
+    /**
+     * Returns the immutable compiled form of the dictionary, which can be shared by many loaders on many threads,
+     * see {@link CompiledDictionary}. The result is cached until the dictionary is changed.
+     */
+    public CompiledDictionary compile() {
+        CompiledDictionary compiled = compiledDictionary;
+        if (compiled == null) {
+            compiled = new CompiledDictionary(this, caseSensitive, getCmdKeyIndex());
+            compiledDictionary = compiled;
+        }
+        return compiled;
     }
 }
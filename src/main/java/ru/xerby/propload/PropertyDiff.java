@@ -0,0 +1,69 @@
+package ru.xerby.propload;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Difference between two generations of properties. A key is considered changed if it was added, removed,
+ * or if its value differs between the generations. The subtrees of properties shared by the generations are skipped,
+ * so a diff costs as much as the changes between the generations, not as the number of properties.
+ */
+@Getter
+public final class PropertyDiff {
+    private final PropertySnapshot before;
+    private final PropertySnapshot after;
+    private final SortedSet<String> changedKeys;
+
+    private PropertyDiff(PropertySnapshot before, PropertySnapshot after, SortedSet<String> changedKeys) {
+        this.before = before;
+        this.after = after;
+        this.changedKeys = Collections.unmodifiableSortedSet(changedKeys);
+    }
+
+    public static PropertyDiff between(PropertySnapshot before, PropertySnapshot after) {
+        SortedSet<String> changedKeys = new TreeSet<>(after.keyComparator());
+        before.getPropertyMap().forEachDifference(after.getPropertyMap(), changedKeys::add);
+
+        return new PropertyDiff(before, after, changedKeys);
+    }
+
+    /**
+     * Returns the diff of the same generations restricted to the changed keys accepted by the filter
+     */
+    PropertyDiff filter(Predicate<String> keyFilter) {
+        SortedSet<String> filteredKeys = new TreeSet<>(changedKeys.comparator());
+        for (String key : changedKeys)
+            if (keyFilter.test(key))
+                filteredKeys.add(key);
+        return new PropertyDiff(before, after, filteredKeys);
+    }
+
+    public boolean isEmpty() {
+        return changedKeys.isEmpty();
+    }
+
+    public boolean isAdded(String key) {
+        return !before.containsKey(key) && after.containsKey(key);
+    }
+
+    public boolean isRemoved(String key) {
+        return before.containsKey(key) && !after.containsKey(key);
+    }
+
+    public String getOldValue(String key) {
+        return before.get(key);
+    }
+
+    public String getNewValue(String key) {
+        return after.get(key);
+    }
+
+    @Override
+    public String toString() {
+        return "Changed properties: " + changedKeys;
+    }
+}
@@ -0,0 +1,240 @@
+package ru.xerby.propload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Reader of .properties files which keeps only the properties known to the dictionary.
+ * <p>The format is the same as {@link java.util.Properties#load(InputStream)} reads: ISO 8859-1 text, comment lines starting
+ * with '#' or '!', keys separated from values by '=', ':' or whitespace, continuation lines ending with a backslash,
+ * and the usual escapes including \\uXXXX. Unlike {@code Properties}, the key of each entry is checked against the dictionary
+ * first, and the value of an unknown key is skipped without being decoded or allocated. The file is read into a buffer with
+ * channel reads and its bytes are parsed in place. It's never memory-mapped: a mapping lives until the buffer is collected,
+ * and on Windows it keeps the file from being replaced, e.g. by an editor while the file is watched.
+ * <p>If a key occurs more than once (in any case, for a case-insensitive dictionary), the last occurrence wins.
+ */
+final class PropertyFileReader {
+    private static final int NONE = -2;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final CompiledDictionary dictionary;
+    private final boolean throwExceptionIfUnknownPropertyFound;
+    private final String sourceName;
+    private final StringBuilder chars = new StringBuilder();
+    private int pos;
+    private int pending = NONE;
+    private boolean precedingBackslash;
+    private int entryCount;
+
+    PropertyFileReader(ByteBuffer buffer, CompiledDictionary dictionary, boolean throwExceptionIfUnknownPropertyFound, String sourceName) {
+        this.buffer = buffer;
+        this.pos = buffer.position();
+        this.limit = buffer.limit();
+        this.dictionary = dictionary;
+        this.throwExceptionIfUnknownPropertyFound = throwExceptionIfUnknownPropertyFound;
+        this.sourceName = sourceName;
+    }
+
+    static ByteBuffer readFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Property file " + file + " is too large (" + size + " bytes)");
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+                ;
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    static ByteBuffer readStream(InputStream stream) throws IOException {
+        return ByteBuffer.wrap(stream.readAllBytes());
+    }
+
+    /**
+     * Number of entries in the source including the ones which were skipped as unknown
+     */
+    int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Puts the known properties of the source into the target map, values are not validated
+     */
+    void readInto(Map<String, String> target) {
+        while (skipToLogicalLine()) {
+            entryCount++;
+            String key = readKey();
+            if (!dictionary.containsKey(key)) {
+                if (throwExceptionIfUnknownPropertyFound)
+                    throw new IllegalArgumentException("Unknown property \"" + key + "\" was found in " + sourceName);
+                skipLogicalLine();
+                continue;
+            }
+
+            String value = readValue();
+            target.remove(key);
+            target.put(key, value);
+            skipLineTerminator();
+        }
+    }
+
+    /**
+     * Skips blank lines, leading whitespace and comment lines
+     *
+     * @return false if the end of the source is reached
+     */
+    private boolean skipToLogicalLine() {
+        while (pos < limit) {
+            char c = charAt(pos);
+            if (c == ' ' || c == '\t' || c == '\f' || c == '\n' || c == '\r')
+                pos++;
+            else if (c == '#' || c == '!') {
+                while (pos < limit && charAt(pos) != '\n' && charAt(pos) != '\r')
+                    pos++;
+            } else
+                return true;
+        }
+        return false;
+    }
+
+    private String readKey() {
+        chars.setLength(0);
+        int c;
+        while ((c = next()) >= 0) {
+            if (c == '\\')
+                appendEscaped();
+            else if (c == '=' || c == ':') {
+                skipSeparator(true);
+                break;
+            } else if (c == ' ' || c == '\t' || c == '\f') {
+                skipSeparator(false);
+                break;
+            } else
+                chars.append((char) c);
+        }
+        return chars.toString();
+    }
+
+    /**
+     * Skips whitespace between the key and the value and at most one '=' or ':' if the key was terminated by whitespace
+     */
+    private void skipSeparator(boolean hasSeparator) {
+        int c;
+        while ((c = next()) >= 0) {
+            if (c == ' ' || c == '\t' || c == '\f')
+                continue;
+            if (!hasSeparator && (c == '=' || c == ':')) {
+                hasSeparator = true;
+                continue;
+            }
+            pending = c;
+            return;
+        }
+    }
+
+    private String readValue() {
+        chars.setLength(0);
+        int c;
+        while ((c = next()) >= 0) {
+            if (c == '\\')
+                appendEscaped();
+            else
+                chars.append((char) c);
+        }
+        return chars.toString();
+    }
+
+    private void appendEscaped() {
+        int c = next();
+        switch (c) {
+            case -1:
+                break;
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0)
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    value = (value << 4) + digit;
+                }
+                chars.append((char) value);
+                break;
+            case 't':
+                chars.append('\t');
+                break;
+            case 'r':
+                chars.append('\r');
+                break;
+            case 'n':
+                chars.append('\n');
+                break;
+            case 'f':
+                chars.append('\f');
+                break;
+            default:
+                chars.append((char) c);
+        }
+    }
+
+    /**
+     * Returns the next char of the current logical line or -1 at its end. Continuation lines are joined here: an unescaped
+     * backslash at the end of a line is dropped together with the line terminator and the leading whitespace of the next line.
+     * Escapes are not decoded, but a backslash which starts an escape is returned as is.
+     */
+    private int next() {
+        if (pending != NONE) {
+            int c = pending;
+            pending = NONE;
+            return c;
+        }
+        while (pos < limit) {
+            char c = charAt(pos);
+            if (c == '\n' || c == '\r')
+                return -1;
+            pos++;
+            if (c != '\\' || precedingBackslash) {
+                precedingBackslash = false;
+                return c;
+            }
+            if (pos >= limit)
+                return -1;
+            char following = charAt(pos);
+            if (following != '\n' && following != '\r') {
+                precedingBackslash = true;
+                return c;
+            }
+            skipLineTerminator();
+            while (pos < limit && (charAt(pos) == ' ' || charAt(pos) == '\t' || charAt(pos) == '\f'))
+                pos++;
+        }
+        return -1;
+    }
+
+    private void skipLogicalLine() {
+        pending = NONE;
+        while (next() >= 0)
+            ;
+        skipLineTerminator();
+    }
+
+    private void skipLineTerminator() {
+        precedingBackslash = false;
+        if (pos < limit && charAt(pos) == '\r')
+            pos++;
+        if (pos < limit && charAt(pos) == '\n')
+            pos++;
+    }
+
+    private char charAt(int index) {
+        return (char) (buffer.get(index) & 0xFF);
+    }
+}
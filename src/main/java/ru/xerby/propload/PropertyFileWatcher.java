@@ -0,0 +1,115 @@
+package ru.xerby.propload;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the external property file of a {@link PropertyLoader} and rebuilds the properties when the file changes.
+ * <p>Editors and deployment tools usually produce a burst of events for one change (truncate, write, rename), so the watcher
+ * waits until no events have arrived for the debounce period and then rebuilds the properties once. The new snapshot
+ * replaces the old one atomically; if the rebuild fails, the error is logged and the previous properties stay in use.
+ * <p>The watcher runs in its own daemon thread until {@link #close()} is called.
+ */
+@Slf4j
+public final class PropertyFileWatcher implements Closeable {
+    private final PropertyLoader propertyLoader;
+    private final long debounceNanos;
+    private final Consumer<PropertyDiff> onReload;
+    private final WatchService watchService;
+    private final Thread thread;
+    private volatile Path watchedFile;
+    private WatchKey watchKey;
+
+    PropertyFileWatcher(PropertyLoader propertyLoader, Path watchedFile, Duration debounce, Consumer<PropertyDiff> onReload) throws IOException {
+        this.propertyLoader = propertyLoader;
+        this.debounceNanos = debounce.toNanos();
+        this.onReload = onReload;
+        this.watchService = watchedFile.getFileSystem().newWatchService();
+        register(watchedFile);
+
+        thread = new Thread(this::run, "propload-watcher-" + watchedFile.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public Path getWatchedFile() {
+        return watchedFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watchService.close();
+    }
+
+    private void register(Path file) throws IOException {
+        Path absoluteFile = file.toAbsolutePath().normalize();
+        if (watchKey != null)
+            watchKey.cancel();
+        watchKey = absoluteFile.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchedFile = absoluteFile;
+        log.debug("Watching external property file " + absoluteFile);
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!isWatchedFileChanged(watchService.take()))
+                    continue;
+                awaitQuietPeriod();
+                reload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Watcher of " + watchedFile + " was closed");
+        }
+    }
+
+    private void awaitQuietPeriod() throws InterruptedException {
+        WatchKey key;
+        while ((key = watchService.poll(debounceNanos, TimeUnit.NANOSECONDS)) != null)
+            isWatchedFileChanged(key);
+    }
+
+    /**
+     * Drains the events of the key and tells whether any of them concerns the watched file
+     */
+    private boolean isWatchedFileChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || watchedFile.getFileName().equals(event.context()))
+                changed = true;
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        try {
+            PropertyDiff diff = propertyLoader.rebuild();
+            log.debug("Properties were reloaded from " + watchedFile + ". " + diff);
+
+            Path resolvedFile = propertyLoader.getExternalPropertyFile();
+            if (resolvedFile != null && !resolvedFile.toAbsolutePath().normalize().equals(watchedFile))
+                register(resolvedFile);
+
+            if (!diff.isEmpty())
+                onReload.accept(diff);
+        } catch (RuntimeException | IOException e) {
+            log.warn("Can't reload properties from " + watchedFile + ", previous properties are kept", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ru.xerby.propload;
+
+import java.time.Duration;
+
+/**
+ * Typed handle of a property, resolved against a {@link PropertyDictionary} or a {@link CompiledDictionary} once and then used to read the property
+ * from a {@link PropertyLoader} or a {@link PropertySnapshot} without looking its name up on each call.
+ * <p>A handle keeps the definition of the property and its ordinal in the dictionary the handle was resolved against,
+ * so a read goes straight to the entry of the property in the ordinal-indexed array of the snapshot. If the snapshot was built
+ * with another dictionary, the read falls back to the hash trie of the snapshot, using the folded name and the hash which
+ * the handle computed in advance. The value type of the handle follows the param type of the property:
+ * String for STRING, Integer for INTEGER, Long for LONG and for DATA_SIZE (in bytes), Double for FLOAT, Duration for DURATION
+ * and Boolean for BOOLEAN and for parameterless properties (a parameterless property is true if it's set). Handles are immutable and are meant to be kept in static final fields:
+ * <pre>
+ * static final PropertyKey&lt;Integer&gt; TTL = PropertyKey.of(DICTIONARY, "ttl", Integer.class);
+ * ...
+ * int ttl = propertyLoader.getAsInt(TTL);
+ * </pre>
+ *
+ * @param <T> type of the property value
+ */
+public final class PropertyKey<T> {
+    private final PropertyDefinition definition;
+    private final Class<T> valueType;
+    private final int ordinal;
+    private final String foldedName;
+    private final int nameHash;
+    private final int foldedNameHash;
+
+    private PropertyKey(PropertyDefinition definition, Class<T> valueType, int ordinal) {
+        this.definition = definition;
+        this.valueType = valueType;
+        this.ordinal = ordinal;
+        this.foldedName = PersistentPropertyMap.fold(definition.getName(), false);
+        this.nameHash = PersistentPropertyMap.hash(definition.getName());
+        this.foldedNameHash = PersistentPropertyMap.hash(foldedName);
+    }
+
+    /**
+     * Resolves the handle of a property of the dictionary
+     *
+     * @param valueType the value type that matches the param type of the property, see {@link #valueTypeOf(PropertyDefinition.ParamType)}
+     * @throws IllegalArgumentException if the property is not in the dictionary or it has another value type
+     */
+    public static <T> PropertyKey<T> of(PropertyDictionary propertyDictionary, String name, Class<T> valueType) {
+        return of(propertyDictionary.compile(), name, valueType);
+    }
+
+    /**
+     * Resolves the handle of a property of the compiled dictionary, see {@link #of(PropertyDictionary, String, Class)}
+     */
+    public static <T> PropertyKey<T> of(CompiledDictionary dictionary, String name, Class<T> valueType) {
+        PropertyDefinition definition = dictionary.get(name);
+        if (definition == null)
+            throw new IllegalArgumentException("Property \"" + name + "\" is not in the dictionary");
+        if (valueTypeOf(definition.getParamType()) != valueType)
+            throw new IllegalArgumentException("Property \"" + name + "\" has param type " + definition.getParamType() +
+                    ", it can't be read as " + valueType.getSimpleName());
+
+        return new PropertyKey<>(definition, valueType, dictionary.ordinalOf(definition));
+    }
+
+    /**
+     * Value type of the handles of the properties with the given param type, null stands for parameterless properties
+     */
+    public static Class<?> valueTypeOf(PropertyDefinition.ParamType paramType) {
+        if (paramType == null)
+            return Boolean.class;
+
+        switch (paramType) {
+            case INTEGER:
+                return Integer.class;
+            case LONG:
+                return Long.class;
+            case FLOAT:
+                return Double.class;
+            case BOOLEAN:
+                return Boolean.class;
+            case DURATION:
+                return Duration.class;
+            case DATA_SIZE:
+                return Long.class;
+            default:
+                return String.class;
+        }
+    }
+
+    public String getName() {
+        return definition.getName();
+    }
+
+    public PropertyDefinition.ParamType getParamType() {
+        return definition.getParamType();
+    }
+
+    public Class<T> getValueType() {
+        return valueType;
+    }
+
+    PropertyDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * Ordinal of the definition in the dictionary the handle was resolved against
+     */
+    int getOrdinal() {
+        return ordinal;
+    }
+
+    String getFoldedName() {
+        return foldedName;
+    }
+
+    int getNameHash() {
+        return nameHash;
+    }
+
+    int getFoldedNameHash() {
+        return foldedNameHash;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyKey(" + definition.getName() + ", " + valueType.getSimpleName() + ")";
+    }
+}
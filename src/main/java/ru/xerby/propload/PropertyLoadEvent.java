@@ -0,0 +1,43 @@
+package ru.xerby.propload;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Timing and counts of one stage of loading properties. Times are {@link System#nanoTime()} values, so they can only be
+ * compared with each other.
+ * <p>Keys read are the entries found in the source, keys accepted are the ones which were added to the properties,
+ * and keys rejected are the rest: unknown keys and keys which are already set by a source of higher priority.
+ * For the defaults stage, keys read are the properties which are not set by any source and keys accepted are the ones
+ * which got their default value.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public final class PropertyLoadEvent {
+    private final Stage stage;
+    /**
+     * Description of the source, e.g. the path of the file or the name of the resource
+     */
+    private final String source;
+    private final long startNanos;
+    private final long endNanos;
+    private final int keysRead;
+    private final int keysAccepted;
+    /**
+     * Size of the file or the resource, 0 for the other stages
+     */
+    private final long bytesRead;
+
+    public int getKeysRejected() {
+        return keysRead - keysAccepted;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    public enum Stage {COMMAND_LINE, EXTERNAL_FILE, SYSTEM_PROPERTIES, ENVIRONMENT, RESOURCE, DEFAULTS}
+}
@@ -0,0 +1,13 @@
+package ru.xerby.propload;
+
+/**
+ * Receives an event for each stage of loading properties: the command line, the external property file, the system properties,
+ * the environment, the resource and the default values, see {@link PropertyLoader#addLoadListener(PropertyLoadListener)}.
+ * <p>Events are delivered synchronously in the thread which loads the source, so a listener should be fast and thread-safe.
+ * An exception thrown by a listener is logged and doesn't affect loading.
+ */
+@FunctionalInterface
+public interface PropertyLoadListener {
+
+    void onStage(PropertyLoadEvent event);
+}
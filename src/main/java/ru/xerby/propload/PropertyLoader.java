@@ -5,18 +5,36 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import javax.management.ObjectName;
 
 /**
  * This class is responsible for loading properties from different sources. Properties that should or can be loaded
  * are listed in the {@link PropertyDictionary}; if the property is not in the repository, then it will not be loaded,
  * even if it is present in one of the sources.
  * <p>If the same property is present in different sources, then preference is given to higher priority sources.
- * The command line has maximum priority, then the external settings file, then the environment and then
- * the internal resource file. If the property is not found in any of the sources, but it has a default value,
+ * The command line has maximum priority, then the external settings file, then the JVM system properties (if enabled),
+ * then the environment and then the internal resource file. If the property is not found in any of the sources, but it has a default value,
  * then it is entered.
  * <p>By default, the user can specify an external settings file by specifying the path to it on the command line
  * (property-file property) or in environment variables, if a prefix is specified for environment variables.
@@ -30,10 +48,45 @@ import java.util.TreeMap;
 public class PropertyLoader {
 
     private static final String DEFAULT_INNER_PROPERTY_FILE_NAME = "properties.properties";
-    private static final String REDEFINED_PROPERTY_FILE_PROPERTY_NAME = "property-file";
+    static final String REDEFINED_PROPERTY_FILE_PROPERTY_NAME = "property-file";
+    /**
+     * The mutable dictionary of the loader, it's compiled again after each change. Null if the loader was created with a compiled dictionary.
+     */
     @Getter(AccessLevel.NONE)
     private final PropertyDictionary propertyDictionary;
-    private final Map<String, String> properties;
+    @Getter(AccessLevel.NONE)
+    private final CompiledDictionary compiledDictionary;
+
+    /**
+     * The last published result of loading. It's replaced as a whole after each build, so all the getters read a consistent
+     * set of properties without locking.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile PropertySnapshot snapshot;
+
+    /**
+     * Sources of the last lazy build, null after an eager build
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile PendingSources pendingSources;
+
+    /**
+     * Path to the external property file which was used by the last successful build, taking into account the property-file
+     * override. Null if no external file was used.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile Path externalPropertyFile;
+
+    /**
+     * Arguments of the last successful build, they are used to rebuild properties on reload
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private BuildArguments lastBuildArguments;
 
     /**
      * If true, then the user can specify an external settings file by specifying the path to it on the command line (key: property-file) or in environment variables.
@@ -92,19 +145,176 @@ public class PropertyLoader {
      */
     private boolean throwExceptionIfExternalPropertyFileNotFound = true;
 
+    /**
+     * If true, then JVM system properties (-D options) are loaded in {@link #buildProperties} as one more source. They use the same
+     * prefix and the same unknown property check as the environment and have priority over the environment, but not over
+     * the external property file. The property-file key can be set as a system property too. False by default.
+     */
+    private boolean canLoadFromSystemProperties = false;
+
+    /**
+     * If set, then the external property file, the environment and the resource are read and parsed in parallel on this executor
+     * during {@link #buildProperties}. The results are merged in the usual priority order, so both the properties and the errors
+     * are the same as in sequential loading. Null by default, which means that the sources are loaded one after another
+     * in the calling thread.
+     */
+    @EqualsAndHashCode.Exclude
+    private Executor sourceLoadingExecutor;
+
+    /**
+     * If true, then {@link #buildProperties} parses only the command line, and the other sources are read the first time
+     * a property is missing from all the sources of higher priority: the external property file, then the system properties
+     * and the environment, then the resource, then the default values. Each source is read at most once per build.
+     * A required property which is not set is reported when it's read, call {@link #validateAll()} to check all the properties
+     * at once. Errors of a source (unknown properties, wrong values, a missing file) are thrown by the getter which caused
+     * reading it. {@link #getProperties()}, {@link #getSnapshot()} and {@link #rebuild()} read all the sources.
+     * The {@link #sourceLoadingExecutor} is not used in lazy mode. False by default.
+     */
+    private boolean isLazySourceLoadingEnabled = false;
+
+    /**
+     * If true, then a command line argument "@path" is replaced with the arguments listed in the file, like in javac and java launcher
+     * argument files: arguments are separated by whitespace, can be quoted and '#' starts a comment. The file is read as a stream,
+     * so it can hold more arguments than the OS allows to pass, and "@@text" stands for the literal argument "@text".
+     * The files are read again on each rebuild. False by default.
+     */
+    private boolean isArgumentFileExpansionEnabled = false;
+
+    /**
+     * If true, then the getters count the reads of each property, see {@link #getAccessReport()}. The counters are striped,
+     * so concurrent reads of the same property don't contend, but each read by name costs one more dictionary lookup.
+     * The counts are kept across rebuilds and while counting is disabled. False by default.
+     */
+    private boolean isAccessCountingEnabled = false;
+
+    /**
+     * Executor which delivers changes to the listeners added by {@link #addChangeListener}, so a slow listener doesn't block
+     * the thread which rebuilds the properties. The common fork-join pool by default.
+     */
+    @EqualsAndHashCode.Exclude
+    private Executor changeListenerExecutor = ForkJoinPool.commonPool();
+
+    /**
+     * If set, then {@link #buildProperties} reads all the sources first and then checks the types, the parametrization
+     * and the required-ness of all the properties in parallel on this pool, and throws one {@link PropertyValidationException}
+     * with every invalid property instead of the first one. Errors of the sources themselves (unknown properties,
+     * a malformed command line, a missing file) are still thrown at once. Null by default, which means that each value
+     * is checked in the calling thread when it's loaded. Not used in lazy mode.
+     */
+    @EqualsAndHashCode.Exclude
+    private ForkJoinPool validationPool;
+
+    /**
+     * True while a build defers the checks of the values to {@link #validationPool}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private boolean isValidationDeferred;
+
     @Setter(AccessLevel.NONE)
     private boolean caseSensitive;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final List<PropertyLoadListener> loadListeners = new CopyOnWriteArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final List<PropertyChangeSubscription> changeSubscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Number of successful builds, including the ones made by {@link #rebuild()}
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile long buildCount;
+
+    /**
+     * Number of successful {@link #rebuild()} calls
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile long reloadCount;
+
+    /**
+     * Duration of the last successful {@link #buildProperties} call, zero before the first build
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile Duration lastBuildDuration = Duration.ZERO;
+
+    /**
+     * The exception thrown by the last failed build, null if no build has failed
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile Throwable lastFailure;
+
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile Instant lastFailureTime;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private ObjectName mBeanName;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile PropertyAccessCounters accessCounters;
+
     public PropertyLoader(PropertyDictionary propertyDictionary) {
         this.propertyDictionary = propertyDictionary;
+        this.compiledDictionary = null;
         caseSensitive = propertyDictionary.caseSensitive;
-        this.properties = new TreeMap<>(caseSensitive ? String::compareTo : String::compareToIgnoreCase);
+        this.snapshot = new PropertySnapshot(0, PersistentPropertyMap.empty(caseSensitive), null);
+    }
+
+    /**
+     * Creates a loader which uses a compiled dictionary. The dictionary is never changed by the loader,
+     * so it can be shared by many loaders.
+     */
+    public PropertyLoader(CompiledDictionary compiledDictionary) {
+        this.propertyDictionary = null;
+        this.compiledDictionary = compiledDictionary;
+        caseSensitive = compiledDictionary.isCaseSensitive();
+        this.snapshot = new PropertySnapshot(0, PersistentPropertyMap.empty(caseSensitive), null);
+    }
+
+    /**
+     * Returns the compiled dictionary to load properties with, including the definition of the property-file key
+     * if the external property file can be redefined
+     */
+    private CompiledDictionary dictionary() {
+        CompiledDictionary dictionary = baseDictionary();
+        return canRedefineExternalPropertyFile ? dictionary.withPropertyFileDefinition() : dictionary;
+    }
+
+    private CompiledDictionary baseDictionary() {
+        return propertyDictionary != null ? propertyDictionary.compile() : compiledDictionary;
     }
 
     protected void loadFromCmdArgs(String[] args) {
-        ParsedCmdProperties parsedCmdProperties = ParsedCmdProperties.parse(args, isEnabledWindowsKeyCompatibility, throwExceptionIfUnboundTokenFound);
+        updateSnapshot(properties -> loadFromCmdArgs(args, properties));
+    }
+
+    private void loadFromCmdArgs(String[] args, Map<String, String> properties) {
+        long startNanos = startTime();
+        int initialSize = properties.size();
+        ParsedCmdProperties parsedCmdProperties = ParsedCmdProperties.parse(args, isEnabledWindowsKeyCompatibility, throwExceptionIfUnboundTokenFound,
+                isArgumentFileExpansionEnabled);
+        loadParsedCmdProperties(parsedCmdProperties, properties);
+        fireStage(PropertyLoadEvent.Stage.COMMAND_LINE, "command line", startNanos, parsedCmdProperties.size(), properties.size() - initialSize, 0);
+    }
+
+    private void loadParsedCmdProperties(ParsedCmdProperties parsedCmdProperties, Map<String, String> properties) {
+        CompiledDictionary dictionary = dictionary();
         for (ParsedCmdProperty parsedCmdProperty : parsedCmdProperties) {
-            PropertyDefinition propertyDefinition = propertyDictionary.getByCmdProperty(parsedCmdProperty);
+            PropertyDefinition propertyDefinition = dictionary.getByCmdProperty(parsedCmdProperty);
 
             if (propertyDefinition == null)
                 if (throwExceptionIfUnknownCmdPropertyFound)
@@ -121,14 +331,16 @@ public class PropertyLoader {
                 }
 
             if (parsedCmdProperty.isSurelyParametrized() || isParametrizedWithoutEqualSignAllowed) {
-                checkValueType(propertyDefinition.getName(), parsedCmdProperty.getValue(), propertyDefinition.getParamType());
+                if (!isValidationDeferred)
+                    checkValue(propertyDefinition.getName(), parsedCmdProperty.getValue(), propertyDefinition);
                 properties.put(propertyDefinition.getName(), parsedCmdProperty.getValue());
             } else if (parsedCmdProperty.getValue() == null)
                 properties.put(propertyDefinition.getName(), null);
             else
                 throw new IllegalArgumentException("Property \"" + parsedCmdProperty.getKey() + "\" is parametrized without equal sign, but it's prohibited");
 
-            if (propertyDefinition.getParametrization() == PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED && parsedCmdProperty.getValue() == null)
+            if (propertyDefinition.getParametrization() == PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED && parsedCmdProperty.getValue() == null
+                    && !isValidationDeferred)
                 throw new IllegalArgumentException("Property \"" + parsedCmdProperty.getKey() + "\" should have a value, but it doesn't");
         }
     }
@@ -138,35 +350,109 @@ public class PropertyLoader {
     }
 
     protected void loadFromEnvironment(String envPropertyPrefix) {
-        loadFromProperties(System.getenv(), envPropertyPrefix, throwExceptionIfUnknownEnvPropertyFound && envPropertyPrefix != null && !envPropertyPrefix.isEmpty());
+        updateSnapshot(properties -> loadFromEnvironment(envPropertyPrefix, properties));
+    }
+
+    private void loadFromEnvironment(String envPropertyPrefix, Map<String, String> properties) {
+        loadFromSourceIndex(PropertySourceIndex.ofEnvironment(envPropertyPrefix), properties);
+    }
+
+    protected void loadFromSystemProperties() {
+        loadFromSystemProperties(null);
+    }
+
+    protected void loadFromSystemProperties(String propertyPrefix) {
+        updateSnapshot(properties -> loadFromSourceIndex(PropertySourceIndex.ofSystemProperties(propertyPrefix), properties));
+    }
+
+    /**
+     * Loads the properties of the environment or of the system properties. Unknown properties are treated according to
+     * {@link #throwExceptionIfUnknownEnvPropertyFound} if the source has a prefix, and ignored otherwise.
+     */
+    private void loadFromSourceIndex(PropertySourceIndex source, Map<String, String> properties) {
+        long startNanos = startTime();
+        int initialSize = properties.size();
+        boolean throwExceptionIfUnknownPropertyFound = throwExceptionIfUnknownEnvPropertyFound && !source.getPrefix().isEmpty();
+        for (Map.Entry<String, String> property : source.getProperties().entrySet())
+            loadProperty(property.getKey(), property.getValue(), throwExceptionIfUnknownPropertyFound, source.describe(), properties);
+        fireStage(source.isEnvironment() ? PropertyLoadEvent.Stage.ENVIRONMENT : PropertyLoadEvent.Stage.SYSTEM_PROPERTIES, source.describe(),
+                startNanos, source.getProperties().size(), properties.size() - initialSize, 0);
     }
 
-    @SneakyThrows
     protected void loadFromFile(File file) {
+        updateSnapshot(properties -> loadFromFile(file, properties));
+    }
+
+    private void loadFromFile(File file, Map<String, String> properties) {
+        mergeSource(PropertyLoadEvent.Stage.EXTERNAL_FILE, readPropertyFile(file), properties);
+    }
+
+    /**
+     * Merges the properties read from a file or a resource, null stands for a missing source
+     */
+    private void mergeSource(PropertyLoadEvent.Stage stage, SourceContent source, Map<String, String> properties) {
+        if (source == null)
+            return;
+
+        int initialSize = properties.size();
+        loadFromProperties(source.properties, null, false, properties);
+        fireStage(stage, source.sourceName, source.startNanos, source.entryCount, properties.size() - initialSize, source.bytesRead);
+    }
+
+    /**
+     * Reads the properties of the external property file which are present in the dictionary, their values aren't validated yet
+     *
+     * @return the properties of the file or null if the file doesn't exist and it's allowed
+     */
+    @SneakyThrows
+    private SourceContent readPropertyFile(File file) {
+        long startNanos = startTime();
         if (!file.exists()) {
             if (throwExceptionIfExternalPropertyFileNotFound)
                 throw new IllegalArgumentException("External property file " + file.getAbsolutePath() + " not found");
             else {
                 log.debug("External property file " + file.getAbsolutePath() + " not found");
-                return;
+                return null;
             }
         }
-        Properties loadedProperties = new Properties();
-        try (var stream = file.toURI().toURL().openStream()) {
-            loadedProperties.load(stream);
-        }
-        log.debug("Loaded " + loadedProperties.size() + " properties from file " + file.getAbsolutePath());
-        loadFromProperties(loadedProperties, null, throwExceptionIfUnknownPropFilePropertyFound);
+        return readProperties(PropertyFileReader.readFile(file.toPath()), "property file " + file.getAbsolutePath(), startNanos);
+    }
+
+    private SourceContent readProperties(ByteBuffer content, String sourceName, long startNanos) {
+        long bytesRead = content.remaining();
+        PropertyFileReader reader = new PropertyFileReader(content, dictionary(), throwExceptionIfUnknownPropFilePropertyFound, sourceName);
+        Map<String, String> loadedProperties = createPropertyMap();
+        reader.readInto(loadedProperties);
+        log.debug("Loaded " + loadedProperties.size() + " of " + reader.getEntryCount() + " properties from " + sourceName);
+        return new SourceContent(sourceName, loadedProperties, reader.getEntryCount(), bytesRead, startNanos);
+    }
+
+    /**
+     * Known properties of a file or a resource which are read, but not merged yet
+     */
+    @AllArgsConstructor
+    private static final class SourceContent {
+        private final String sourceName;
+        private final Map<String, String> properties;
+        private final int entryCount;
+        private final long bytesRead;
+        private final long startNanos;
     }
 
-    @SneakyThrows
     protected void loadFromStream(InputStream stream) {
-        Properties loadedProperties = new Properties();
-        loadedProperties.load(stream);
-        loadFromProperties(loadedProperties, null, throwExceptionIfUnknownPropFilePropertyFound);
+        updateSnapshot(properties -> loadFromStream(stream, properties));
+    }
+
+    @SneakyThrows
+    private void loadFromStream(InputStream stream, Map<String, String> properties) {
+        loadFromProperties(readProperties(PropertyFileReader.readStream(stream), "property stream", 0).properties, null, false, properties);
     }
 
     protected void loadFromProperties(Map<?, ?> externalProperties, String prefix, boolean throwExceptionIfUnknownPropertyFound) {
+        updateSnapshot(properties -> loadFromProperties(externalProperties, prefix, throwExceptionIfUnknownPropertyFound, properties));
+    }
+
+    private void loadFromProperties(Map<?, ?> externalProperties, String prefix, boolean throwExceptionIfUnknownPropertyFound, Map<String, String> properties) {
         if (externalProperties == null)
             return;
 
@@ -181,66 +467,383 @@ public class PropertyLoader {
             else
                 propName = fullPropName.substring(prefix.length());
 
-            if (properties.containsKey(propName))
-                continue;
-
-            PropertyDefinition propertyDefinition = propertyDictionary.get(propName);
-            if (propertyDefinition == null)
-                if (throwExceptionIfUnknownPropertyFound)
-                    throw new IllegalArgumentException("Unknown property \"" + propName + "\" was found in environment" +
-                            (prefix == null ? null : " (prefix \"" + prefix + "\")"));
-                else
-                    continue;
+            loadProperty(propName, (String) externalProperties.get(fullPropName), throwExceptionIfUnknownPropertyFound,
+                    prefix == null || prefix.isEmpty() ? "environment" : "environment (prefix \"" + prefix + "\")", properties);
+        }
+    }
 
-            checkValueType(propName, (String) externalProperties.get(fullPropName), propertyDefinition.getParamType());
+    /**
+     * Puts a property of a lower-priority source unless it's already set. The property must be in the dictionary
+     * and its value must match the param type.
+     */
+    private void loadProperty(String propName, String value, boolean throwExceptionIfUnknownPropertyFound, String sourceDescription,
+                              Map<String, String> properties) {
+        if (properties.containsKey(propName))
+            return;
 
-            String propValue;
-            if (propertyDefinition.getParamType() == null)
-                propValue = null;
+        PropertyDefinition propertyDefinition = dictionary().get(propName);
+        if (propertyDefinition == null)
+            if (throwExceptionIfUnknownPropertyFound)
+                throw new IllegalArgumentException("Unknown property \"" + propName + "\" was found in " + sourceDescription);
             else
-                propValue = (String) externalProperties.get(fullPropName);
-            properties.put(propName, propValue);
-        }
+                return;
+
+        if (!isValidationDeferred)
+            checkValue(propName, value, propertyDefinition);
+
+        //a deferred check needs the invalid value of a parameterless property to report it
+        properties.put(propName, propertyDefinition.getParamType() == null && isParameterlessValue(value) ? null : value);
     }
 
     protected void setDefaultIfIsNotSet() {
-        for (String propName : propertyDictionary.keySet()) {
+        updateSnapshot(this::setDefaultIfIsNotSet);
+    }
+
+    private void setDefaultIfIsNotSet(Map<String, String> properties) {
+        setDefaultIfIsNotSet(properties, true);
+    }
+
+    private void setDefaultIfIsNotSet(Map<String, String> properties, boolean throwExceptionIfRequiredIsNotSet) {
+        long startNanos = startTime();
+        int initialSize = properties.size();
+        int missingCount = 0;
+        CompiledDictionary dictionary = dictionary();
+        List<String> names = dictionary.getNames();
+        List<PropertyDefinition> definitions = dictionary.getDefinitions();
+        for (int i = 0; i < names.size(); i++) {
+            String propName = names.get(i);
             if (properties.containsKey(propName))
                 continue;
 
-            PropertyDefinition propertyDefinition = propertyDictionary.get(propName);
-            if (propertyDefinition.getDefaultValue() == null && propertyDefinition.isRequired())
-                throw new IllegalArgumentException("Property \"" + propName + "\" is required, but it's not set");
-            else if (propertyDefinition.getDefaultValue() != null)
+            missingCount++;
+            PropertyDefinition propertyDefinition = definitions.get(i);
+            if (propertyDefinition.getDefaultValue() == null && propertyDefinition.isRequired()) {
+                if (throwExceptionIfRequiredIsNotSet)
+                    throw new IllegalArgumentException("Property \"" + propName + "\" is required, but it's not set");
+            } else if (propertyDefinition.getDefaultValue() != null)
                 properties.put(propName, propertyDefinition.getDefaultValue());
         }
+        fireStage(PropertyLoadEvent.Stage.DEFAULTS, "defaults", startNanos, missingCount, properties.size() - initialSize, 0);
     }
 
+    /**
+     * Loads properties from all the sources and publishes them as a new {@link PropertySnapshot}. The properties are collected
+     * in a separate map, so until the method returns readers keep seeing the previous snapshot, and if loading fails
+     * the previous snapshot stays in place.
+     */
+    @Synchronized
     public void buildProperties(String[] commandLineArgs,
                                 String externalPropertyFilePath,
                                 String envPropertyPrefix,
                                 String resourceName) {
-        if (canRedefineExternalPropertyFile)
-            propertyDictionary.registerProperty(new PropertyDefinition(REDEFINED_PROPERTY_FILE_PROPERTY_NAME, "Path to external properties file",
-                    null, PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false, PropertyDefinition.ParamType.STRING));
+        long startNanos = System.nanoTime();
+        PropertySnapshot before = changeSubscriptions.isEmpty() ? null : getSnapshot();
+        try {
+            loadAndPublish(commandLineArgs, externalPropertyFilePath, envPropertyPrefix, resourceName);
+        } catch (RuntimeException | Error e) {
+            lastFailure = e;
+            lastFailureTime = Instant.now();
+            throw e;
+        }
+        lastBuildDuration = Duration.ofNanos(System.nanoTime() - startNanos);
+        buildCount++;
+        if (before != null)
+            notifyChangeListeners(PropertyDiff.between(before, getSnapshot()));
+    }
+
+    private void notifyChangeListeners(PropertyDiff diff) {
+        if (diff.isEmpty())
+            return;
+        for (PropertyChangeSubscription subscription : changeSubscriptions)
+            subscription.offer(diff, changeListenerExecutor);
+    }
+
+    private void loadAndPublish(String[] commandLineArgs, String externalPropertyFilePath, String envPropertyPrefix, String resourceName) {
+        PersistentPropertyMap previous = snapshot.getPropertyMap();
+        PersistentPropertyMap.Builder properties = (previous.isCaseSensitive() == caseSensitive ? previous
+                : PersistentPropertyMap.empty(caseSensitive)).rebuilder(dictionary());
+        isValidationDeferred = validationPool != null && !isLazySourceLoadingEnabled;
+        try {
+            loadFromCmdArgs(commandLineArgs, properties);
+        } finally {
+            isValidationDeferred = false;
+        }
+
+        PropertySourceIndex systemProperties = canLoadFromSystemProperties ? PropertySourceIndex.ofSystemProperties(envPropertyPrefix) : null;
+        PropertySourceIndex environment = PropertySourceIndex.ofEnvironment(envPropertyPrefix);
+        String resolvedExternalPropertyFilePath = getExternalPropertyFilePath(externalPropertyFilePath, envPropertyPrefix != null,
+                systemProperties, environment, properties);
+
+        Path resolvedExternalPropertyFile = resolvedExternalPropertyFilePath == null ? null : Paths.get(resolvedExternalPropertyFilePath);
+        if (isLazySourceLoadingEnabled) {
+            PendingSources pending = new PendingSources(properties, resolvedExternalPropertyFile, systemProperties, environment, resourceName);
+            pendingSources = pending;
+            publishPending(pending);
+        } else {
+            if (validationPool == null) {
+                loadSources(resolvedExternalPropertyFile, systemProperties, environment, resourceName, properties);
+                setDefaultIfIsNotSet(properties);
+            } else
+                loadSourcesAndValidate(resolvedExternalPropertyFile, systemProperties, environment, resourceName, properties);
+
+            pendingSources = null;
+            publish(properties.build());
+        }
+        externalPropertyFile = resolvedExternalPropertyFile;
+        lastBuildArguments = new BuildArguments(commandLineArgs == null ? null : commandLineArgs.clone(),
+                externalPropertyFilePath, envPropertyPrefix, resourceName);
+    }
+
+    private void loadSources(Path externalPropertyFile, PropertySourceIndex systemProperties, PropertySourceIndex environment,
+                             String resourceName, Map<String, String> properties) {
+        if (sourceLoadingExecutor == null)
+            loadSourcesSequentially(externalPropertyFile, systemProperties, environment, resourceName, properties);
+        else
+            loadSourcesConcurrently(externalPropertyFile, systemProperties, environment, resourceName, properties);
+    }
+
+    /**
+     * Loads the sources and the default values without checking the values and then checks all the properties
+     * on {@link #validationPool}
+     *
+     * @throws PropertyValidationException if any property is invalid
+     */
+    private void loadSourcesAndValidate(Path externalPropertyFile, PropertySourceIndex systemProperties, PropertySourceIndex environment,
+                                        String resourceName, Map<String, String> properties) {
+        isValidationDeferred = true;
+        try {
+            loadSources(externalPropertyFile, systemProperties, environment, resourceName, properties);
+            setDefaultIfIsNotSet(properties, false);
+        } finally {
+            isValidationDeferred = false;
+        }
+
+        List<IllegalArgumentException> failures = validationPool.invoke(new PropertyValidationTask(dictionary(), properties, PropertyValidationTask.DEFAULT_THRESHOLD, this::checkValue));
+        if (!failures.isEmpty())
+            throw new PropertyValidationException(failures);
+    }
+
+    private void loadSourcesSequentially(Path externalPropertyFile, PropertySourceIndex systemProperties, PropertySourceIndex environment,
+                             String resourceName, Map<String, String> properties) {
+        if (externalPropertyFile != null)
+            loadFromFile(externalPropertyFile.toFile(), properties);
+
+        if (systemProperties != null)
+            loadFromSourceIndex(systemProperties, properties);
+        loadFromSourceIndex(environment, properties);
 
-        properties.clear();
-        loadFromCmdArgs(commandLineArgs);
+        properties.remove(REDEFINED_PROPERTY_FILE_PROPERTY_NAME);
+
+        loadFromResource(resourceName, properties);
+    }
 
-        externalPropertyFilePath = getExternalPropertyFilePath(externalPropertyFilePath, envPropertyPrefix);
+    /**
+     * Reads the external file and the resource into separate maps on {@link #sourceLoadingExecutor} and then merges them
+     * with the already captured environment and system properties in the same order as {@link #loadSourcesSequentially}. An error
+     * of a source is rethrown when the merge reaches that source, so the first error in priority order wins, as in sequential loading.
+     */
+    private void loadSourcesConcurrently(Path externalPropertyFile, PropertySourceIndex systemProperties, PropertySourceIndex environment,
+                                         String resourceName, Map<String, String> properties) {
+        CompletableFuture<SourceContent> fileSource = externalPropertyFile == null ? CompletableFuture.completedFuture(null) :
+                CompletableFuture.supplyAsync(() -> readPropertyFile(externalPropertyFile.toFile()), sourceLoadingExecutor);
+        CompletableFuture<SourceContent> resourceSource = CompletableFuture.supplyAsync(() -> readResource(resourceName), sourceLoadingExecutor);
 
-        if (externalPropertyFilePath != null)
-            loadFromFile(Paths.get(externalPropertyFilePath).toFile());
+        mergeSource(PropertyLoadEvent.Stage.EXTERNAL_FILE, await(fileSource), properties);
 
-        loadFromEnvironment(envPropertyPrefix);
+        if (systemProperties != null)
+            loadFromSourceIndex(systemProperties, properties);
+        loadFromSourceIndex(environment, properties);
 
         properties.remove(REDEFINED_PROPERTY_FILE_PROPERTY_NAME);
 
-        loadFromResource(resourceName);
-        setDefaultIfIsNotSet();
+        mergeSource(PropertyLoadEvent.Stage.RESOURCE, await(resourceSource), properties);
+    }
+
+    /**
+     * Sources of a lazy build which are merged one by one in priority order. All the fields are guarded by the loader lock
+     * except the stage, which is also read without locking to see if everything is loaded.
+     */
+    private static final class PendingSources {
+        private static final int EXTERNAL_FILE = 0;
+        private static final int OS_SOURCES = 1;
+        private static final int RESOURCE = 2;
+        private static final int DEFAULTS = 3;
+        private static final int COMPLETE = 4;
+
+        private final PersistentPropertyMap.Builder properties;
+        private final Path externalPropertyFile;
+        private final PropertySourceIndex systemProperties;
+        private final PropertySourceIndex environment;
+        private final String resourceName;
+        private volatile int stage = EXTERNAL_FILE;
+
+        private PendingSources(PersistentPropertyMap.Builder properties, Path externalPropertyFile, PropertySourceIndex systemProperties,
+                               PropertySourceIndex environment, String resourceName) {
+            this.properties = properties;
+            this.externalPropertyFile = externalPropertyFile;
+            this.systemProperties = systemProperties;
+            this.environment = environment;
+            this.resourceName = resourceName;
+        }
+
+        boolean isComplete() {
+            return stage == COMPLETE;
+        }
+    }
+
+    /**
+     * Merges the next source of a lazy build into its properties and publishes the result
+     */
+    private void loadNextSource(PendingSources pending) {
+        switch (pending.stage) {
+            case PendingSources.EXTERNAL_FILE:
+                if (pending.externalPropertyFile != null)
+                    loadFromFile(pending.externalPropertyFile.toFile(), pending.properties);
+                break;
+            case PendingSources.OS_SOURCES:
+                if (pending.systemProperties != null)
+                    loadFromSourceIndex(pending.systemProperties, pending.properties);
+                loadFromSourceIndex(pending.environment, pending.properties);
+                break;
+            case PendingSources.RESOURCE:
+                loadFromResource(pending.resourceName, pending.properties);
+                break;
+            default:
+                setDefaultIfIsNotSet(pending.properties, false);
+        }
+        pending.stage++;
+        publishPending(pending);
+    }
+
+    /**
+     * Publishes the properties merged so far, the property-file key is never published
+     */
+    private void publishPending(PendingSources pending) {
+        publish(pending.properties.build().without(REDEFINED_PROPERTY_FILE_PROPERTY_NAME));
+    }
+
+    /**
+     * Returns the snapshot to read the key from. After a lazy build the sources are read until one of them has the key,
+     * and a required property which is not set in any source is reported.
+     */
+    private PropertySnapshot resolve(String key) {
+        PropertySnapshot current = snapshot;
+        PendingSources pending = pendingSources;
+        if (pending == null || key == null || current.containsKey(key))
+            return current;
+
+        if (!pending.isComplete())
+            current = loadUntilFound(key);
+        if (!current.containsKey(key)) {
+            PropertyDefinition propertyDefinition = dictionary().get(key);
+            if (propertyDefinition != null && propertyDefinition.isRequired())
+                throw new IllegalArgumentException("Property \"" + propertyDefinition.getName() + "\" is required, but it's not set");
+        }
+        return current;
+    }
+
+    @Synchronized
+    private PropertySnapshot loadUntilFound(String key) {
+        PendingSources pending = pendingSources;
+        while (pending != null && !pending.isComplete() && !snapshot.containsKey(key))
+            loadNextSource(pending);
+        return snapshot;
+    }
+
+    @Synchronized
+    private void loadAllSources() {
+        PendingSources pending = pendingSources;
+        while (pending != null && !pending.isComplete())
+            loadNextSource(pending);
+    }
+
+    /**
+     * Reads all the sources which weren't read yet by a lazy build and checks that all the required properties are set
+     *
+     * @throws IllegalArgumentException if a required property is not set or a source is invalid
+     */
+    public void validateAll() {
+        loadAllSources();
+        PropertySnapshot current = snapshot;
+        CompiledDictionary dictionary = dictionary();
+        List<String> names = dictionary.getNames();
+        List<PropertyDefinition> definitions = dictionary.getDefinitions();
+        for (int i = 0; i < names.size(); i++)
+            if (definitions.get(i).isRequired() && !current.containsKey(names.get(i)))
+                throw new IllegalArgumentException("Property \"" + names.get(i) + "\" is required, but it's not set");
+    }
+
+    /**
+     * Returns the last published snapshot. After a lazy build, all the sources which weren't read yet are read first.
+     */
+    public PropertySnapshot getSnapshot() {
+        if (pendingSources != null)
+            loadAllSources();
+        return snapshot;
+    }
+
+    @SneakyThrows
+    private static <T> T await(CompletableFuture<T> source) {
+        try {
+            return source.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Repeats the last successful {@link #buildProperties} call with the same arguments, re-reading all the sources.
+     *
+     * @return the difference between the previous and the new properties
+     */
+    @Synchronized
+    public PropertyDiff rebuild() {
+        if (lastBuildArguments == null)
+            throw new IllegalStateException("Properties can't be rebuilt before they were built");
+
+        PropertySnapshot before = getSnapshot();
+        buildProperties(lastBuildArguments.commandLineArgs, lastBuildArguments.externalPropertyFilePath,
+                lastBuildArguments.envPropertyPrefix, lastBuildArguments.resourceName);
+        PropertyDiff diff = PropertyDiff.between(before, getSnapshot());
+        reloadCount++;
+        return diff;
+    }
+
+    /**
+     * Starts watching the external property file used by the last build (including the file set by the property-file key)
+     * and rebuilds the properties every time the file is changed. Bursts of file system events are merged: the rebuild
+     * starts when no new events have arrived during the debounce period.
+     *
+     * @param debounce how long the file must stay unchanged before the properties are rebuilt
+     * @param onReload called after each rebuild which changed at least one property
+     * @return the watcher, close it to stop watching
+     */
+    @SneakyThrows
+    public PropertyFileWatcher watchExternalPropertyFile(Duration debounce, Consumer<PropertyDiff> onReload) {
+        Path file = externalPropertyFile;
+        if (lastBuildArguments == null || file == null)
+            throw new IllegalStateException("There is no external property file to watch, properties must be built with an external property file first");
+
+        return new PropertyFileWatcher(this, file, debounce, onReload);
     }
 
     protected void loadFromResource(String resourceName) {
+        updateSnapshot(properties -> loadFromResource(resourceName, properties));
+    }
+
+    private void loadFromResource(String resourceName, Map<String, String> properties) {
+        mergeSource(PropertyLoadEvent.Stage.RESOURCE, readResource(resourceName), properties);
+    }
+
+    /**
+     * Reads the properties of the resource property file which are present in the dictionary, their values aren't validated yet
+     *
+     * @return the properties of the resource or null if the resource doesn't exist and it's allowed
+     */
+    @SneakyThrows
+    private SourceContent readResource(String resourceName) {
+        long startNanos = startTime();
+        String name = resourceName == null ? DEFAULT_INNER_PROPERTY_FILE_NAME : resourceName;
         InputStream resource;
         if (resourceName != null) {
             resource = getClass().getClassLoader().getResourceAsStream(resourceName);
@@ -249,86 +852,256 @@ public class PropertyLoader {
         } else {
             resource = getClass().getClassLoader().getResourceAsStream(DEFAULT_INNER_PROPERTY_FILE_NAME);
         }
-        if (resource != null)
-            loadFromStream(resource);
+        if (resource == null)
+            return null;
+
+        try (resource) {
+            return readProperties(PropertyFileReader.readStream(resource), "resource " + name, startNanos);
+        }
     }
 
     protected String getExternalPropertyFilePath(String originalExternalPropertyFilePath, String envPropertyPrefix) {
+        return getExternalPropertyFilePath(originalExternalPropertyFilePath, envPropertyPrefix != null,
+                canLoadFromSystemProperties ? PropertySourceIndex.ofSystemProperties(envPropertyPrefix) : null,
+                PropertySourceIndex.ofEnvironment(envPropertyPrefix), snapshot.getPropertyMap().builder(dictionary()));
+    }
+
+    /**
+     * The property-file key is looked up in the command line properties and then, if the prefix is set, in the system properties
+     * (if enabled) and in the environment, ignoring case
+     */
+    private String getExternalPropertyFilePath(String originalExternalPropertyFilePath, boolean hasPrefix, PropertySourceIndex systemProperties,
+                                               PropertySourceIndex environment, Map<String, String> properties) {
         if (!canRedefineExternalPropertyFile)
             return originalExternalPropertyFilePath;
 
-        if (!properties.containsKey(REDEFINED_PROPERTY_FILE_PROPERTY_NAME) && envPropertyPrefix != null) {
-            Map.Entry<String, String> envEntry = System.getenv().entrySet().stream().filter(e -> e.getKey().equalsIgnoreCase(envPropertyPrefix + REDEFINED_PROPERTY_FILE_PROPERTY_NAME))
-                    .findFirst().orElse(null);
-
-            String envProp = envEntry == null ? null : envEntry.getValue();
-            if (envProp != null) {
-                properties.put(REDEFINED_PROPERTY_FILE_PROPERTY_NAME, envProp);
-            }
+        if (!properties.containsKey(REDEFINED_PROPERTY_FILE_PROPERTY_NAME) && hasPrefix) {
+            String redefinedPath = systemProperties == null ? null : systemProperties.getIgnoreCase(REDEFINED_PROPERTY_FILE_PROPERTY_NAME);
+            if (redefinedPath == null)
+                redefinedPath = environment.getIgnoreCase(REDEFINED_PROPERTY_FILE_PROPERTY_NAME);
+            if (redefinedPath != null)
+                properties.put(REDEFINED_PROPERTY_FILE_PROPERTY_NAME, redefinedPath);
         }
 
         String externalPropertyFilePath = null;
         if (properties.containsKey(REDEFINED_PROPERTY_FILE_PROPERTY_NAME)) {
             externalPropertyFilePath = properties.get(REDEFINED_PROPERTY_FILE_PROPERTY_NAME);
             log.debug("property-file path was overridden to " + externalPropertyFilePath);
-        } else {
-            if (envPropertyPrefix != null)
-                externalPropertyFilePath = System.getenv(envPropertyPrefix + REDEFINED_PROPERTY_FILE_PROPERTY_NAME);
         }
 
         return externalPropertyFilePath == null ? originalExternalPropertyFilePath : externalPropertyFilePath;
     }
 
-    @SuppressWarnings({"ResultOfMethodCallIgnored", "java:S2201"})
+    private SortedMap<String, String> createPropertyMap() {
+        return new TreeMap<>(caseSensitive ? String::compareTo : String::compareToIgnoreCase);
+    }
+
+    /**
+     * Applies a single loading step to a builder over the current properties and publishes the result. The new snapshot
+     * shares all the properties which the step didn't change with the current one.
+     * Used when the loading steps are called one by one instead of {@link #buildProperties}.
+     */
+    @Synchronized
+    private void updateSnapshot(Consumer<Map<String, String>> loadingStep) {
+        PersistentPropertyMap.Builder properties = snapshot.getPropertyMap().builder(dictionary());
+        loadingStep.accept(properties);
+        publish(properties.build());
+    }
+
+    private void publish(PersistentPropertyMap properties) {
+        snapshot = new PropertySnapshot(snapshot.getGeneration() + 1, properties, dictionary());
+    }
+
+    @AllArgsConstructor
+    private static final class BuildArguments {
+        private final String[] commandLineArgs;
+        private final String externalPropertyFilePath;
+        private final String envPropertyPrefix;
+        private final String resourceName;
+    }
+
+    /**
+     * Whether the value is allowed for a parameterless property, such a property is set without a value
+     */
+    static boolean isParameterlessValue(String propValue) {
+        return propValue == null || propValue.isEmpty() || propValue.equals(" ") || propValue.equals("true") || propValue.equals("t")
+                || propValue.equals("yes") || propValue.equals("1") || propValue.equals("y");
+    }
+
+    /**
+     * Checks that the value matches the param type, without the constraints of a definition. Every value of every source
+     * goes through this method before its constraints are checked, so a subclass can override it to accept other formats.
+     */
     protected void checkValueType(String propName, String propValue, PropertyDefinition.ParamType paramType) {
-        if (propValue == null) return;
-        if (paramType == null)
-            if ((propValue.isEmpty() || propValue.equals(" ")) || propValue.equals("true") || propValue.equals("t") || propValue.equals("yes") || propValue.equals("1") || propValue.equals("y"))
-                return;
-            else
-                throw new IllegalArgumentException("Property \"" + propName + "\" is parameterless, but its value is " + propValue);
+        PropertyValidator.of(paramType).validate(propName, propValue);
+    }
 
-        switch (paramType) {
-            case STRING:
-                break;
-            case INTEGER:
-                getAsInt(propValue, propName);
-                break;
-            case LONG:
-                getAsLong(propValue, propName);
-                break;
-            case BOOLEAN:
-                getAsBoolean(propValue, propName);
-                break;
-            case FLOAT:
-                getAsDouble(propValue, propName);
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown param type " + paramType + " for property " + propName);
-        }
+    /**
+     * Checks the type of the value with {@link #checkValueType} and then the constraints of the definition
+     * with the validator compiled for it
+     */
+    void checkValue(String propName, String propValue, PropertyDefinition propertyDefinition) {
+        PropertyDefinition.ParamType paramType = propertyDefinition.getParamType();
+        checkValueType(propName, propValue, paramType);
+        PropertyValidator validator = propertyDefinition.getValidator();
+        //a definition without constraints shares the validator of its param type, which has nothing to add
+        if (validator != PropertyValidator.of(paramType))
+            validator.validate(propName, propValue);
     }
 
     public boolean getAsBoolean(String key) {
-        return getAsBoolean(properties.get(key), key);
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key);
+        return resolve(key).getAsBoolean(key);
     }
 
     public int getAsInt(String key) {
-        return getAsInt(properties.get(key), key);
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key);
+        return resolve(key).getAsInt(key);
     }
 
     public long getAsLong(String key) {
-        return getAsLong(properties.get(key), key);
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key);
+        return resolve(key).getAsLong(key);
     }
 
     public double getAsDouble(String key) {
-        return getAsDouble(properties.get(key), key);
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key);
+        return resolve(key).getAsDouble(key);
+    }
+
+    /**
+     * Returns the value of a DURATION property, which was parsed when it was loaded
+     */
+    public Duration getAsDuration(String key) {
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key);
+        return resolve(key).getAsDuration(key);
+    }
+
+    /**
+     * Returns the value of a DATA_SIZE property in bytes, which was parsed when it was loaded
+     */
+    public long getAsBytes(String key) {
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key);
+        return resolve(key).getAsBytes(key);
     }
 
     public String get(String key) {
-        return properties.get(key);
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key);
+        return resolve(key).get(key);
     }
 
-    private boolean getAsBoolean(String propValue, String keyForLogging) {
+    /**
+     * Reads the property of the handle, see {@link PropertySnapshot#get(PropertyKey)}
+     */
+    public <T> T get(PropertyKey<T> key) {
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key.getDefinition());
+        return resolve(key.getName()).get(key);
+    }
+
+    public boolean getAsBoolean(PropertyKey<Boolean> key) {
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key.getDefinition());
+        return resolve(key.getName()).getAsBoolean(key);
+    }
+
+    public int getAsInt(PropertyKey<Integer> key) {
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key.getDefinition());
+        return resolve(key.getName()).getAsInt(key);
+    }
+
+    public long getAsLong(PropertyKey<Long> key) {
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key.getDefinition());
+        return resolve(key.getName()).getAsLong(key);
+    }
+
+    public double getAsDouble(PropertyKey<Double> key) {
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key.getDefinition());
+        return resolve(key.getName()).getAsDouble(key);
+    }
+
+    public Duration getAsDuration(PropertyKey<Duration> key) {
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key.getDefinition());
+        return resolve(key.getName()).getAsDuration(key);
+    }
+
+    public long getAsBytes(PropertyKey<Long> key) {
+        if (isAccessCountingEnabled)
+            accessCounters().increment(key.getDefinition());
+        return resolve(key.getName()).getAsBytes(key);
+    }
+
+    /**
+     * Layers the overrides over the current properties, sharing all the other properties with them, see {@link PropertyOverlay}.
+     * Each override must be a property of the dictionary and its value must match the param type.
+     *
+     * @param overrides values by property names, null for a parameterless property which is set
+     * @throws IllegalArgumentException if a property is unknown or its value is invalid
+     */
+    public PropertyOverlay overlay(Map<String, String> overrides) {
+        return overlay(getSnapshot(), overrides);
+    }
+
+    PropertyOverlay overlay(PropertySnapshot base, Map<String, String> overrides) {
+        CompiledDictionary dictionary = baseDictionary();
+        SortedMap<String, String> validatedOverrides = createPropertyMap();
+        for (Map.Entry<String, String> override : overrides.entrySet()) {
+            PropertyDefinition propertyDefinition = dictionary.get(override.getKey());
+            if (propertyDefinition == null)
+                throw new IllegalArgumentException("Unknown property \"" + override.getKey() + "\" was found in overrides");
+
+            if (override.getValue() == null && propertyDefinition.getParametrization() == PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED)
+                throw new IllegalArgumentException("Property \"" + propertyDefinition.getName() + "\" should have a value, but it doesn't");
+            checkValue(propertyDefinition.getName(), override.getValue(), propertyDefinition);
+            validatedOverrides.put(propertyDefinition.getName(), propertyDefinition.getParamType() == null ? null : override.getValue());
+        }
+        PersistentPropertyMap merged = base.getPropertyMap();
+        for (Map.Entry<String, String> override : validatedOverrides.entrySet())
+            merged = merged.with(override.getKey(), override.getValue(), dictionary.get(override.getKey()));
+        return new PropertyOverlay(this, base, Collections.unmodifiableSortedMap(validatedOverrides), new PropertySnapshot(base, merged, dictionary, validatedOverrides.keySet()));
+    }
+
+    /**
+     * Returns the read counts of the properties since access counting was enabled, with the hot properties first
+     * and the properties which were never read, see {@link #isAccessCountingEnabled}
+     */
+    public PropertyAccessReport getAccessReport() {
+        return accessCounters().report();
+    }
+
+    private PropertyAccessCounters accessCounters() {
+        PropertyAccessCounters counters = accessCounters;
+        if (counters == null)
+            counters = createAccessCounters();
+        return counters;
+    }
+
+    @Synchronized
+    private PropertyAccessCounters createAccessCounters() {
+        if (accessCounters == null)
+            accessCounters = new PropertyAccessCounters(this::baseDictionary);
+        return accessCounters;
+    }
+
+    /**
+     * Returns an unmodifiable map of all loaded properties
+     */
+    public Map<String, String> getProperties() {
+        return getSnapshot().getProperties();
+    }
+
+    static boolean parseBoolean(String propValue, String keyForLogging) {
         if (propValue == null)
             throw new IllegalArgumentException(keyForLogging + " should have been a boolean, but it is null");
         else {
@@ -342,7 +1115,7 @@ public class PropertyLoader {
         }
     }
 
-    private int getAsInt(String propValue, String keyForLogging) {
+    static int parseInt(String propValue, String keyForLogging) {
         if (propValue == null)
             throw new NumberFormatException(keyForLogging + " should have been an integer, but it is null");
         else {
@@ -354,7 +1127,7 @@ public class PropertyLoader {
         }
     }
 
-    private long getAsLong(String propValue, String keyForLogging) {
+    static long parseLong(String propValue, String keyForLogging) {
         if (propValue == null)
             throw new NumberFormatException(keyForLogging + " should have been an integer, but it is null");
         else {
@@ -366,7 +1139,7 @@ public class PropertyLoader {
         }
     }
 
-    private double getAsDouble(String propValue, String keyForLogging) {
+    static double parseDouble(String propValue, String keyForLogging) {
         if (propValue == null)
             throw new NumberFormatException(keyForLogging + " should have been a number, but it is null");
         else {
@@ -378,14 +1151,145 @@ public class PropertyLoader {
         }
     }
 
+    /**
+     * Parses a DURATION value, a number with a unit like "60s" or an ISO-8601 duration like "PT1M"
+     *
+     * @return the duration in nanoseconds
+     */
+    static long parseDuration(String propValue, String keyForLogging) {
+        if (propValue == null)
+            throw new NumberFormatException(keyForLogging + " should have been a duration, but it is null");
+        else {
+            try {
+                String trimmed = propValue.trim();
+                return trimmed.regionMatches(true, 0, "P", 0, 1) ? Duration.parse(trimmed).toNanos() : ValueUnits.parseNanos(trimmed);
+            } catch (NumberFormatException | DateTimeParseException | ArithmeticException e) {
+                throw new NumberFormatException(keyForLogging + " should have been a duration like 60s, but input string: \"" + propValue + "\"");
+            }
+        }
+    }
+
+    /**
+     * Parses a DATA_SIZE value, a number of bytes with an optional unit like "10MB"
+     *
+     * @return the size in bytes
+     */
+    static long parseDataSize(String propValue, String keyForLogging) {
+        if (propValue == null)
+            throw new NumberFormatException(keyForLogging + " should have been a data size, but it is null");
+        else {
+            try {
+                return ValueUnits.parseBytes(propValue);
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(keyForLogging + " should have been a data size like 10MB, but input string: \"" + propValue + "\"");
+            }
+        }
+    }
+
+    /**
+     * Registers a listener which gets an event for each stage of each build, see {@link PropertyLoadListener}.
+     * Without listeners the stages are neither timed nor counted.
+     */
+    public void addLoadListener(PropertyLoadListener listener) {
+        loadListeners.add(listener);
+    }
+
+    /**
+     * Subscribes the listener to the changes of one property, the key is compared as the dictionary compares names.
+     * The listener is called on the {@link #changeListenerExecutor} after each build which added, removed or changed
+     * the property, see {@link PropertyChangeListener}. After a lazy build the listeners are notified only when all
+     * the sources are read, so with change listeners a build reads all of them at once.
+     */
+    public void addChangeListener(String key, PropertyChangeListener listener) {
+        changeSubscriptions.add(new PropertyChangeSubscription(caseSensitive ? key::equals : key::equalsIgnoreCase, listener));
+    }
+
+    /**
+     * Subscribes the listener to the changes of all the properties whose names (as they are in the dictionary) match the pattern,
+     * e.g. Pattern.compile("db\\.pool\\..*"). All the changes of one build come in one call.
+     */
+    public void addChangeListener(Pattern keyPattern, PropertyChangeListener listener) {
+        changeSubscriptions.add(new PropertyChangeSubscription(name -> {
+            PropertyDefinition propertyDefinition = dictionary().get(name);
+            return keyPattern.matcher(propertyDefinition == null ? name : propertyDefinition.getName()).matches();
+        }, listener));
+    }
+
+    /**
+     * Removes all the subscriptions of the listener. A delivery which is already scheduled still happens.
+     */
+    public void removeChangeListener(PropertyChangeListener listener) {
+        changeSubscriptions.removeIf(subscription -> subscription.getListener() == listener);
+    }
+
+    public void removeLoadListener(PropertyLoadListener listener) {
+        loadListeners.remove(listener);
+    }
+
+    private long startTime() {
+        return loadListeners.isEmpty() ? 0 : System.nanoTime();
+    }
+
+    private void fireStage(PropertyLoadEvent.Stage stage, String source, long startNanos, int keysRead, int keysAccepted, long bytesRead) {
+        if (loadListeners.isEmpty())
+            return;
+
+        PropertyLoadEvent event = new PropertyLoadEvent(stage, source, startNanos, System.nanoTime(), keysRead, keysAccepted, bytesRead);
+        for (PropertyLoadListener listener : loadListeners) {
+            try {
+                listener.onStage(event);
+            } catch (RuntimeException e) {
+                log.warn("Load listener " + listener + " failed on " + event, e);
+            }
+        }
+    }
+
+    /**
+     * Registers the loader in the platform MBean server as a {@link PropertyLoaderMXBean}, so its properties, build statistics
+     * and the rebuild operation are available in JConsole and other JMX clients
+     *
+     * @param objectName the name of the MBean, e.g. "ru.xerby.propload:type=PropertyLoader,name=app"
+     */
+    @SneakyThrows
+    @Synchronized
+    public ObjectName registerMBean(String objectName) {
+        if (mBeanName != null)
+            throw new IllegalStateException("Property loader is already registered as " + mBeanName);
+
+        PropertyLoaderManagement management = new PropertyLoaderManagement(this);
+        ObjectName name = ManagementFactory.getPlatformMBeanServer().registerMBean(management, new ObjectName(objectName)).getObjectName();
+        addLoadListener(management);
+        mBeanName = name;
+        return name;
+    }
+
+    @SneakyThrows
+    @Synchronized
+    public void unregisterMBean() {
+        if (mBeanName == null)
+            return;
+
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(mBeanName);
+        loadListeners.removeIf(PropertyLoaderManagement.class::isInstance);
+        mBeanName = null;
+    }
+
+    /**
+     * Returns the current properties with the values of sensitive properties replaced with "***"
+     */
+    Map<String, String> getMaskedProperties() {
+        CompiledDictionary dictionary = dictionary();
+        Map<String, String> masked = new LinkedHashMap<>();
+        for (Map.Entry<String, String> prop : snapshot.getProperties().entrySet())
+            masked.put(prop.getKey(), dictionary.get(prop.getKey()).isSensitive() ? "***" : prop.getValue());
+        return masked;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (Map.Entry<String, String> prop : properties.entrySet()) {
-            sb.append(prop.getKey()).append(": ");
-            sb.append(propertyDictionary.get(prop.getKey()).isSensitive() ? "***" : prop.getValue());
-            sb.append("\n");
-        }
+        for (Map.Entry<String, String> prop : getMaskedProperties().entrySet())
+            sb.append(prop.getKey()).append(": ").append(prop.getValue()).append("\n");
         return sb.toString();
     }
 }
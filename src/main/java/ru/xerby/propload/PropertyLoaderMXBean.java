@@ -0,0 +1,43 @@
+package ru.xerby.propload;
+
+import java.util.Map;
+
+/**
+ * Management interface of a {@link PropertyLoader}, see {@link PropertyLoader#registerMBean(String)}
+ */
+public interface PropertyLoaderMXBean {
+
+    /**
+     * Current properties, the values of sensitive properties are replaced with "***"
+     */
+    Map<String, String> getProperties();
+
+    long getLastBuildDurationMillis();
+
+    /**
+     * Number of successful builds including reloads
+     */
+    long getBuildCount();
+
+    /**
+     * Number of successful {@link PropertyLoader#rebuild()} calls, including the ones made by the file watcher
+     */
+    long getReloadCount();
+
+    /**
+     * Description of the last failed build or reload, null if there were no failures
+     */
+    String getLastFailure();
+
+    /**
+     * Number of properties which each source contributed to the last build, by stage name
+     */
+    Map<String, Integer> getSourceKeyCounts();
+
+    /**
+     * Rebuilds the properties from the same sources, see {@link PropertyLoader#rebuild()}
+     *
+     * @return the list of changed properties
+     */
+    String rebuild();
+}
@@ -0,0 +1,63 @@
+package ru.xerby.propload;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of {@link PropertyLoaderMXBean} which reads the state of the loader on each call. Key counts per source
+ * are collected by listening to the loading stages, so they're available only for the builds made after the registration.
+ */
+final class PropertyLoaderManagement implements PropertyLoaderMXBean, PropertyLoadListener {
+    private final PropertyLoader propertyLoader;
+    private final Map<String, Integer> sourceKeyCounts = new ConcurrentHashMap<>();
+
+    PropertyLoaderManagement(PropertyLoader propertyLoader) {
+        this.propertyLoader = propertyLoader;
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+        return propertyLoader.getMaskedProperties();
+    }
+
+    @Override
+    public long getLastBuildDurationMillis() {
+        return propertyLoader.getLastBuildDuration().toMillis();
+    }
+
+    @Override
+    public long getBuildCount() {
+        return propertyLoader.getBuildCount();
+    }
+
+    @Override
+    public long getReloadCount() {
+        return propertyLoader.getReloadCount();
+    }
+
+    @Override
+    public String getLastFailure() {
+        Throwable lastFailure = propertyLoader.getLastFailure();
+        Instant lastFailureTime = propertyLoader.getLastFailureTime();
+        return lastFailure == null ? null : lastFailureTime + " " + lastFailure;
+    }
+
+    @Override
+    public Map<String, Integer> getSourceKeyCounts() {
+        return new TreeMap<>(sourceKeyCounts);
+    }
+
+    @Override
+    public String rebuild() {
+        return propertyLoader.rebuild().toString();
+    }
+
+    @Override
+    public void onStage(PropertyLoadEvent event) {
+        if (event.getStage() == PropertyLoadEvent.Stage.COMMAND_LINE)
+            sourceKeyCounts.clear();
+        sourceKeyCounts.put(event.getStage().name(), event.getKeysAccepted());
+    }
+}
@@ -0,0 +1,119 @@
+package ru.xerby.propload;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A few overridden properties layered over a shared {@link PropertySnapshot}, see {@link PropertyLoader#overlay(Map)}.
+ * The overrides are put into a copy-on-write version of the hash trie of the base, which shares all the other properties
+ * with it, so an overlay costs only the paths to its own keys, e.g. one overlay per tenant or per request over the properties
+ * of the application, and a read is a single lookup.
+ * <p>The overrides are validated against the dictionary and pre-parsed like the properties of a snapshot, so the typed
+ * getters don't parse them on each call. An overlay is immutable and stays on the base it was made on,
+ * a rebuild of the loader doesn't change it.
+ */
+public final class PropertyOverlay {
+    private final PropertyLoader propertyLoader;
+    private final PropertySnapshot base;
+    private final SortedMap<String, String> overrides;
+    private final PropertySnapshot merged;
+
+    PropertyOverlay(PropertyLoader propertyLoader, PropertySnapshot base, SortedMap<String, String> overrides, PropertySnapshot merged) {
+        this.propertyLoader = propertyLoader;
+        this.base = base;
+        this.overrides = overrides;
+        this.merged = merged;
+    }
+
+    public PropertySnapshot getBase() {
+        return base;
+    }
+
+    /**
+     * Returns an unmodifiable map of the overridden properties only
+     */
+    public Map<String, String> getOverrides() {
+        return overrides;
+    }
+
+    /**
+     * Returns a new overlay over the same base with the overrides of this overlay and the given ones,
+     * the given ones win, e.g. the overrides of a request over the overlay of its tenant
+     */
+    public PropertyOverlay with(Map<String, String> moreOverrides) {
+        SortedMap<String, String> mergedOverrides = new TreeMap<>(base.keyComparator());
+        mergedOverrides.putAll(overrides);
+        mergedOverrides.putAll(moreOverrides);
+        return propertyLoader.overlay(base, mergedOverrides);
+    }
+
+    public String get(String key) {
+        return merged.get(key);
+    }
+
+    public boolean containsKey(String key) {
+        return merged.containsKey(key);
+    }
+
+    public boolean getAsBoolean(String key) {
+        return merged.getAsBoolean(key);
+    }
+
+    public int getAsInt(String key) {
+        return merged.getAsInt(key);
+    }
+
+    public long getAsLong(String key) {
+        return merged.getAsLong(key);
+    }
+
+    public double getAsDouble(String key) {
+        return merged.getAsDouble(key);
+    }
+
+    public Duration getAsDuration(String key) {
+        return merged.getAsDuration(key);
+    }
+
+    public long getAsBytes(String key) {
+        return merged.getAsBytes(key);
+    }
+
+    /**
+     * Reads the property of the handle, see {@link PropertySnapshot#get(PropertyKey)}
+     */
+    public <T> T get(PropertyKey<T> key) {
+        return merged.get(key);
+    }
+
+    public boolean getAsBoolean(PropertyKey<Boolean> key) {
+        return merged.getAsBoolean(key);
+    }
+
+    public int getAsInt(PropertyKey<Integer> key) {
+        return merged.getAsInt(key);
+    }
+
+    public long getAsLong(PropertyKey<Long> key) {
+        return merged.getAsLong(key);
+    }
+
+    public double getAsDouble(PropertyKey<Double> key) {
+        return merged.getAsDouble(key);
+    }
+
+    public Duration getAsDuration(PropertyKey<Duration> key) {
+        return merged.getAsDuration(key);
+    }
+
+    public long getAsBytes(PropertyKey<Long> key) {
+        return merged.getAsBytes(key);
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyOverlay(generation " + base.getGeneration() + ", overrides " + overrides.keySet() + ")";
+    }
+}
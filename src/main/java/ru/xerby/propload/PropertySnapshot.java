@@ -0,0 +1,269 @@
+package ru.xerby.propload;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable result of one build of a {@link PropertyLoader}. The loader prepares a new snapshot aside and publishes it with
+ * a single volatile write, so readers never see an empty or half-filled set of properties and never take a lock.
+ * <p>A reader that needs several properties from the same generation should get the snapshot once
+ * ({@link PropertyLoader#getSnapshot()}) and read all the values from it, because a rebuild can publish a new snapshot
+ * between two calls of the loader's getters.
+ * <p>The properties are kept in a persistent hash trie. A loading step or an overlay which changes a few properties
+ * copies only the paths to them and shares the rest of the trie with the previous generation; a full build reuses the entries
+ * and the subtrees of the previous generation which it loads unchanged. An old snapshot stays readable as long as it's referenced.
+ * {@link PropertyKey} handles don't walk the trie: the first handle read builds an array of the entries indexed by the ordinals
+ * of the dictionary the snapshot was built with, and every handle read after that is a single array read. An overlay copies
+ * the array of its base and replaces the entries of its overrides.
+ */
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public final class PropertySnapshot {
+    /**
+     * Sequence number of the build which produced the snapshot. The initial empty snapshot has generation 0.
+     */
+    @Getter
+    private final long generation;
+    @EqualsAndHashCode.Include
+    private final PersistentPropertyMap properties;
+    /**
+     * Dictionary which the properties were built with, null for a snapshot without properties
+     */
+    private final CompiledDictionary dictionary;
+    /**
+     * Snapshot which this one overrides and the names of the overridden properties, null for a snapshot of a build
+     */
+    private final PropertySnapshot base;
+    private final Collection<String> overriddenNames;
+    private volatile SortedMap<String, String> sortedProperties;
+    private volatile PersistentPropertyMap.PropertyEntry[] entriesByOrdinal;
+
+    PropertySnapshot(long generation, PersistentPropertyMap properties, CompiledDictionary dictionary) {
+        this.generation = generation;
+        this.properties = properties;
+        this.dictionary = dictionary;
+        this.base = null;
+        this.overriddenNames = null;
+    }
+
+    /**
+     * Creates the snapshot of an overlay. Its handle reads copy the entry array of the base and replace only the entries
+     * of the overridden properties, instead of looking up every property of the dictionary again.
+     *
+     * @param properties the properties of the base with the overridden ones
+     * @param dictionary dictionary of the overrides, used if the base has no dictionary
+     */
+    PropertySnapshot(PropertySnapshot base, PersistentPropertyMap properties, CompiledDictionary dictionary, Collection<String> overriddenNames) {
+        this.generation = base.generation;
+        this.properties = properties;
+        this.dictionary = base.dictionary == null ? dictionary : base.dictionary;
+        this.base = base;
+        this.overriddenNames = overriddenNames;
+    }
+
+    PersistentPropertyMap getPropertyMap() {
+        return properties;
+    }
+
+    /**
+     * Returns an unmodifiable map of all properties of the snapshot sorted by their names. The sorted map is a full copy
+     * of the properties, built on the first call for each snapshot, so the getters of the snapshot don't use it.
+     */
+    public Map<String, String> getProperties() {
+        SortedMap<String, String> sorted = sortedProperties;
+        if (sorted == null) {
+            sorted = new TreeMap<>(keyComparator());
+            sorted.putAll(properties);
+            sorted = Collections.unmodifiableSortedMap(sorted);
+            sortedProperties = sorted;
+        }
+        return sorted;
+    }
+
+    public String get(String key) {
+        return properties.get(key);
+    }
+
+    public boolean containsKey(String key) {
+        return properties.getEntry(key) != null;
+    }
+
+    public int size() {
+        return properties.size();
+    }
+
+    Comparator<String> keyComparator() {
+        return properties.isCaseSensitive() ? String::compareTo : String::compareToIgnoreCase;
+    }
+
+    public boolean getAsBoolean(String key) {
+        return booleanOf(properties.getEntry(key), key);
+    }
+
+    public int getAsInt(String key) {
+        return intOf(properties.getEntry(key), key);
+    }
+
+    public long getAsLong(String key) {
+        return longOf(properties.getEntry(key), key);
+    }
+
+    public double getAsDouble(String key) {
+        return doubleOf(properties.getEntry(key), key);
+    }
+
+    public Duration getAsDuration(String key) {
+        return Duration.ofNanos(nanosOf(properties.getEntry(key), key));
+    }
+
+    public long getAsBytes(String key) {
+        return bytesOf(properties.getEntry(key), key);
+    }
+
+    /**
+     * Returns the value of the property converted to the value type of the handle, or null if the property isn't set
+     * or is set without a value. A parameterless property gives true if it's set and false otherwise.
+     * The value is boxed, use the primitive getters to read numbers without allocation.
+     */
+    public <T> T get(PropertyKey<T> key) {
+        PersistentPropertyMap.PropertyEntry entry = entryOf(key);
+        if (key.getParamType() == null)
+            return key.getValueType().cast(entry != null);
+
+        if (entry == null || entry.value == null)
+            return null;
+        Object result;
+        switch (key.getParamType()) {
+            case INTEGER:
+                result = intOf(entry, key.getName());
+                break;
+            case LONG:
+                result = longOf(entry, key.getName());
+                break;
+            case FLOAT:
+                result = doubleOf(entry, key.getName());
+                break;
+            case BOOLEAN:
+                result = booleanOf(entry, key.getName());
+                break;
+            case DURATION:
+                result = Duration.ofNanos(nanosOf(entry, key.getName()));
+                break;
+            case DATA_SIZE:
+                result = bytesOf(entry, key.getName());
+                break;
+            default:
+                result = entry.value;
+        }
+        return key.getValueType().cast(result);
+    }
+
+    public boolean getAsBoolean(PropertyKey<Boolean> key) {
+        PersistentPropertyMap.PropertyEntry entry = entryOf(key);
+        return key.getParamType() == null ? entry != null : booleanOf(entry, key.getName());
+    }
+
+    public int getAsInt(PropertyKey<Integer> key) {
+        return intOf(entryOf(key), key.getName());
+    }
+
+    /**
+     * Returns the value of a LONG property, or the value of a DATA_SIZE property in bytes
+     */
+    public long getAsLong(PropertyKey<Long> key) {
+        if (key.getParamType() == PropertyDefinition.ParamType.DATA_SIZE)
+            return bytesOf(entryOf(key), key.getName());
+        return longOf(entryOf(key), key.getName());
+    }
+
+    public double getAsDouble(PropertyKey<Double> key) {
+        return doubleOf(entryOf(key), key.getName());
+    }
+
+    public Duration getAsDuration(PropertyKey<Duration> key) {
+        return Duration.ofNanos(nanosOf(entryOf(key), key.getName()));
+    }
+
+    public long getAsBytes(PropertyKey<Long> key) {
+        return bytesOf(entryOf(key), key.getName());
+    }
+
+    /**
+     * Entry of the property of the handle, null if the property isn't set. If the handle was resolved against a dictionary
+     * which doesn't match the dictionary of the snapshot at its ordinal, the entry is found in the trie by the name.
+     */
+    private PersistentPropertyMap.PropertyEntry entryOf(PropertyKey<?> key) {
+        int ordinal = key.getOrdinal();
+        if (dictionary != null && ordinal >= 0) {
+            PropertyDefinition[] definitions = dictionary.getDefinitionsByOrdinal();
+            if (ordinal < definitions.length && definitions[ordinal] == key.getDefinition())
+                return entriesByOrdinal()[ordinal];
+        }
+        return properties.getEntry(key);
+    }
+
+    private PersistentPropertyMap.PropertyEntry[] entriesByOrdinal() {
+        PersistentPropertyMap.PropertyEntry[] entries = entriesByOrdinal;
+        if (entries == null) {
+            if (base != null && base.dictionary == dictionary) {
+                entries = base.entriesByOrdinal().clone();
+                for (String name : overriddenNames) {
+                    int ordinal = dictionary.ordinalOf(dictionary.get(name));
+                    if (ordinal >= 0)
+                        entries[ordinal] = properties.getEntry(name);
+                }
+            } else {
+                List<String> names = dictionary.getNames();
+                entries = new PersistentPropertyMap.PropertyEntry[names.size()];
+                for (int i = 0; i < entries.length; i++)
+                    entries[i] = properties.getEntry(names.get(i));
+            }
+            entriesByOrdinal = entries;
+        }
+        return entries;
+    }
+
+    private static boolean booleanOf(PersistentPropertyMap.PropertyEntry entry, String key) {
+        if (entry == null)
+            return PropertyLoader.parseBoolean(null, key);
+        return entry.hasBoolean() ? entry.getBoolean() : PropertyLoader.parseBoolean(entry.value, key);
+    }
+
+    private static int intOf(PersistentPropertyMap.PropertyEntry entry, String key) {
+        if (entry == null)
+            return PropertyLoader.parseInt(null, key);
+        return entry.hasInt() ? entry.getInt() : PropertyLoader.parseInt(entry.value, key);
+    }
+
+    private static long longOf(PersistentPropertyMap.PropertyEntry entry, String key) {
+        if (entry == null)
+            return PropertyLoader.parseLong(null, key);
+        return entry.hasLong() ? entry.getLong() : PropertyLoader.parseLong(entry.value, key);
+    }
+
+    private static long nanosOf(PersistentPropertyMap.PropertyEntry entry, String key) {
+        if (entry == null)
+            return PropertyLoader.parseDuration(null, key);
+        return entry.hasDuration() ? entry.getNanos() : PropertyLoader.parseDuration(entry.value, key);
+    }
+
+    private static long bytesOf(PersistentPropertyMap.PropertyEntry entry, String key) {
+        if (entry == null)
+            return PropertyLoader.parseDataSize(null, key);
+        return entry.hasDataSize() ? entry.getBytes() : PropertyLoader.parseDataSize(entry.value, key);
+    }
+
+    private static double doubleOf(PersistentPropertyMap.PropertyEntry entry, String key) {
+        if (entry == null)
+            return PropertyLoader.parseDouble(null, key);
+        return entry.hasDouble() ? entry.getDouble() : PropertyLoader.parseDouble(entry.value, key);
+    }
+}
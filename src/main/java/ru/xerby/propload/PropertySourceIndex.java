@@ -0,0 +1,84 @@
+package ru.xerby.propload;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Snapshot of an OS-level source of properties, the environment or the JVM system properties, taken once per build.
+ * The properties of the source are the entries which start with the prefix, under names with the prefix stripped.
+ * The entries which start with the prefix in any case are also indexed case-folded, so the same snapshot answers both
+ * "all the properties of the source" and "the value of this property, in any case, prefix included" without walking
+ * the source again.
+ */
+final class PropertySourceIndex {
+    private final String sourceName;
+    private final String prefix;
+    private final Map<String, String> properties = new LinkedHashMap<>();
+    private final Map<String, String> foldedProperties = new HashMap<>();
+
+    private PropertySourceIndex(String sourceName, String prefix) {
+        this.sourceName = sourceName;
+        this.prefix = prefix == null ? "" : prefix;
+    }
+
+    private static final String ENVIRONMENT = "environment";
+
+    static PropertySourceIndex ofEnvironment(String prefix) {
+        return of(ENVIRONMENT, prefix, System.getenv());
+    }
+
+    static PropertySourceIndex ofSystemProperties(String prefix) {
+        Properties systemProperties = System.getProperties();
+        Map<String, String> properties = new HashMap<>();
+        for (String name : systemProperties.stringPropertyNames())
+            properties.put(name, systemProperties.getProperty(name));
+        return of("system properties", prefix, properties);
+    }
+
+    static PropertySourceIndex of(String sourceName, String prefix, Map<String, String> source) {
+        PropertySourceIndex index = new PropertySourceIndex(sourceName, prefix);
+        for (Map.Entry<String, String> entry : source.entrySet()) {
+            String name = entry.getKey();
+            if (!name.regionMatches(true, 0, index.prefix, 0, index.prefix.length()))
+                continue;
+            String strippedName = name.substring(index.prefix.length());
+            if (name.startsWith(index.prefix))
+                index.properties.put(strippedName, entry.getValue());
+            index.foldedProperties.putIfAbsent(strippedName.toLowerCase(Locale.ROOT), entry.getValue());
+        }
+        return index;
+    }
+
+    /**
+     * Properties of the source with the prefix stripped from their names
+     */
+    Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * Value of the property with the given name (without prefix) in any case, the prefix of its entry can be in any case too
+     */
+    String getIgnoreCase(String name) {
+        return foldedProperties.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    boolean isEnvironment() {
+        return ENVIRONMENT.equals(sourceName);
+    }
+
+    String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Description of the source for error messages, e.g. environment (prefix "app.")
+     */
+    String describe() {
+        return prefix.isEmpty() ? sourceName : sourceName + " (prefix \"" + prefix + "\")";
+    }
+}
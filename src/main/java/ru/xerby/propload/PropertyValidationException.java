@@ -0,0 +1,33 @@
+package ru.xerby.propload;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * All the invalid properties of one build, thrown when the values are validated in one pass after loading,
+ * see the validation pool of {@link PropertyLoader}. Each failure is the exception that the property would have caused
+ * on its own, in the order of the dictionary.
+ */
+public class PropertyValidationException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<IllegalArgumentException> failures;
+
+    PropertyValidationException(List<IllegalArgumentException> failures) {
+        super(describe(failures));
+        this.failures = Collections.unmodifiableList(failures);
+        for (IllegalArgumentException failure : failures)
+            addSuppressed(failure);
+    }
+
+    public List<IllegalArgumentException> getFailures() {
+        return failures;
+    }
+
+    private static String describe(List<IllegalArgumentException> failures) {
+        StringBuilder sb = new StringBuilder().append(failures.size()).append(failures.size() == 1 ? " property is" : " properties are").append(" invalid:");
+        for (IllegalArgumentException failure : failures)
+            sb.append("\n  ").append(failure.getMessage());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package ru.xerby.propload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Checks the resolved properties against the definitions of a dictionary on a fork-join pool: the range of definitions
+ * is split in halves until it's small enough, and the failures of the halves are joined in the order of the dictionary.
+ * Each definition is checked for required-ness, parametrization and the type and the constraints of its value. The properties are only read,
+ * so they must not be changed while the task runs.
+ */
+final class PropertyValidationTask extends RecursiveTask<List<IllegalArgumentException>> {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Ranges of at most this many definitions are checked without splitting
+     */
+    static final int DEFAULT_THRESHOLD = 512;
+
+    private final transient List<String> names;
+    private final transient List<PropertyDefinition> definitions;
+    private final transient Map<String, String> properties;
+    private final transient ValueCheck valueCheck;
+    private final int threshold;
+    private final int from;
+    private final int to;
+
+    PropertyValidationTask(CompiledDictionary dictionary, Map<String, String> properties) {
+        this(dictionary, properties, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold the greatest number of definitions which are checked without splitting the range
+     */
+    PropertyValidationTask(CompiledDictionary dictionary, Map<String, String> properties, int threshold) {
+        this(dictionary, properties, threshold, (propName, propValue, definition) -> definition.getValidator().validate(propName, propValue));
+    }
+
+    /**
+     * @param valueCheck checks the type and the constraints of a value which is set
+     */
+    PropertyValidationTask(CompiledDictionary dictionary, Map<String, String> properties, int threshold, ValueCheck valueCheck) {
+        this(dictionary.getNames(), dictionary.getDefinitions(), properties, valueCheck, threshold, 0, dictionary.size());
+    }
+
+    private PropertyValidationTask(List<String> names, List<PropertyDefinition> definitions, Map<String, String> properties, ValueCheck valueCheck,
+                                   int threshold, int from, int to) {
+        this.names = names;
+        this.definitions = definitions;
+        this.properties = properties;
+        this.valueCheck = valueCheck;
+        this.threshold = threshold;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected List<IllegalArgumentException> compute() {
+        if (to - from <= threshold)
+            return validateRange();
+
+        int middle = (from + to) >>> 1;
+        PropertyValidationTask left = new PropertyValidationTask(names, definitions, properties, valueCheck, threshold, from, middle);
+        PropertyValidationTask right = new PropertyValidationTask(names, definitions, properties, valueCheck, threshold, middle, to);
+        left.fork();
+        List<IllegalArgumentException> rightFailures = right.compute();
+        List<IllegalArgumentException> failures = left.join();
+        if (failures.isEmpty())
+            return rightFailures;
+        failures.addAll(rightFailures);
+        return failures;
+    }
+
+    private List<IllegalArgumentException> validateRange() {
+        List<IllegalArgumentException> failures = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            IllegalArgumentException failure = validate(names.get(i), definitions.get(i));
+            if (failure != null)
+                failures.add(failure);
+        }
+        return failures;
+    }
+
+    private IllegalArgumentException validate(String propName, PropertyDefinition propertyDefinition) {
+        String value = properties.get(propName);
+        if (value == null && !properties.containsKey(propName))
+            return propertyDefinition.isRequired() ? new IllegalArgumentException("Property \"" + propName + "\" is required, but it's not set") : null;
+
+        if (value == null && propertyDefinition.getParametrization() == PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED)
+            return new IllegalArgumentException("Property \"" + propName + "\" should have a value, but it doesn't");
+        try {
+            if (value != null)
+                valueCheck.check(propName, value, propertyDefinition);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @FunctionalInterface
+    interface ValueCheck {
+        /**
+         * @throws IllegalArgumentException if the value is invalid
+         */
+        void check(String propName, String propValue, PropertyDefinition propertyDefinition);
+    }
+}
@@ -0,0 +1,260 @@
+package ru.xerby.propload;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Check of the values of one {@link PropertyDefinition}, compiled when the definition is created: the param type selects
+ * the subclass once, the bounds are parsed, the pattern is compiled and the allowed values are put into a hash set,
+ * so checking a value costs one virtual call and no lookups. Validators are immutable and shared by all the loads.
+ * A null value stands for a property without a value and is always accepted, the parametrization is checked elsewhere.
+ */
+abstract class PropertyValidator {
+    private static final Map<PropertyDefinition.ParamType, PropertyValidator> TYPE_VALIDATORS = new EnumMap<>(PropertyDefinition.ParamType.class);
+    private static final PropertyValidator PARAMETERLESS = new Parameterless(null, null);
+
+    static {
+        for (PropertyDefinition.ParamType paramType : PropertyDefinition.ParamType.values())
+            TYPE_VALIDATORS.put(paramType, create(paramType, null, null, null, null));
+    }
+
+    private final Pattern pattern;
+    private final String[] allowedValues;
+    private final Set<String> allowedValueSet;
+
+    private PropertyValidator(Pattern pattern, String[] allowedValues) {
+        this.pattern = pattern;
+        this.allowedValues = allowedValues;
+        this.allowedValueSet = allowedValues == null ? null : new HashSet<>(Arrays.asList(allowedValues));
+    }
+
+    /**
+     * Validator of the type only, without constraints
+     */
+    static PropertyValidator of(PropertyDefinition.ParamType paramType) {
+        return paramType == null ? PARAMETERLESS : TYPE_VALIDATORS.get(paramType);
+    }
+
+    /**
+     * Compiles the constraints of the definition
+     *
+     * @throws IllegalArgumentException if a constraint doesn't suit the param type or it's malformed
+     */
+    static PropertyValidator of(PropertyDefinition definition) {
+        PropertyDefinition.ParamType paramType = definition.getParamType();
+        if (definition.getMin() == null && definition.getMax() == null && definition.getPattern() == null && definition.getAllowedValues() == null)
+            return of(paramType);
+
+        if (paramType == null)
+            throw new IllegalArgumentException("Can't set constraints for parameterless property");
+        Pattern pattern = definition.getPattern() == null ? null : Pattern.compile(definition.getPattern());
+        return create(paramType, definition.getMin(), definition.getMax(), pattern, definition.getAllowedValues());
+    }
+
+    private static PropertyValidator create(PropertyDefinition.ParamType paramType, String min, String max, Pattern pattern, String[] allowedValues) {
+        switch (paramType) {
+            case INTEGER:
+                return new IntegerNumber(bound(min, Integer.MIN_VALUE, "min"), bound(max, Integer.MAX_VALUE, "max"), pattern, allowedValues);
+            case LONG:
+                return new LongNumber(bound(min, Long.MIN_VALUE, "min"), bound(max, Long.MAX_VALUE, "max"), pattern, allowedValues);
+            case FLOAT:
+                return new FloatNumber(bound(min, Double.NEGATIVE_INFINITY, "min"), bound(max, Double.POSITIVE_INFINITY, "max"), pattern, allowedValues);
+            case DURATION:
+                return new DurationValue(min == null ? Long.MIN_VALUE : PropertyLoader.parseDuration(min, "Constraint min"),
+                        max == null ? Long.MAX_VALUE : PropertyLoader.parseDuration(max, "Constraint max"), min, max, pattern, allowedValues);
+            case DATA_SIZE:
+                return new DataSizeValue(min == null ? Long.MIN_VALUE : PropertyLoader.parseDataSize(min, "Constraint min"),
+                        max == null ? Long.MAX_VALUE : PropertyLoader.parseDataSize(max, "Constraint max"), min, max, pattern, allowedValues);
+            default:
+                if (min != null || max != null)
+                    throw new IllegalArgumentException("Can't set min or max for " + paramType + " property");
+                return paramType == PropertyDefinition.ParamType.BOOLEAN ? new BooleanValue(pattern, allowedValues) : new Text(pattern, allowedValues);
+        }
+    }
+
+    private static long bound(String value, long defaultValue, String boundName) {
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Constraint " + boundName + " should have been an integer, but it is \"" + value + "\"", e);
+        }
+    }
+
+    private static double bound(String value, double defaultValue, String boundName) {
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Constraint " + boundName + " should have been a number, but it is \"" + value + "\"", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value doesn't match the param type or violates a constraint
+     */
+    final void validate(String propName, String propValue) {
+        if (propValue == null)
+            return;
+
+        checkType(propName, propValue);
+        if (pattern != null && !pattern.matcher(propValue).matches())
+            throw new IllegalArgumentException("Property \"" + propName + "\" should match the pattern " + pattern + ", but its value is \"" + propValue + "\"");
+        if (allowedValueSet != null && !allowedValueSet.contains(propValue))
+            throw new IllegalArgumentException("Property \"" + propName + "\" should be one of " + Arrays.toString(allowedValues) + ", but its value is \"" + propValue + "\"");
+    }
+
+    abstract void checkType(String propName, String propValue);
+
+    private static void checkBounds(boolean isEmptyRange) {
+        if (isEmptyRange)
+            throw new IllegalArgumentException("Constraint min can't be greater than max");
+    }
+
+    private static void checkRange(String propName, String propValue, boolean belowMin, boolean aboveMax, Object min, Object max) {
+        if (belowMin)
+            throw new IllegalArgumentException("Property \"" + propName + "\" should be at least " + min + ", but its value is " + propValue);
+        if (aboveMax)
+            throw new IllegalArgumentException("Property \"" + propName + "\" should be at most " + max + ", but its value is " + propValue);
+    }
+
+    private static final class Parameterless extends PropertyValidator {
+        Parameterless(Pattern pattern, String[] allowedValues) {
+            super(pattern, allowedValues);
+        }
+
+        @Override
+        void checkType(String propName, String propValue) {
+            if (!PropertyLoader.isParameterlessValue(propValue))
+                throw new IllegalArgumentException("Property \"" + propName + "\" is parameterless, but its value is " + propValue);
+        }
+    }
+
+    private static final class Text extends PropertyValidator {
+        Text(Pattern pattern, String[] allowedValues) {
+            super(pattern, allowedValues);
+        }
+
+        @Override
+        void checkType(String propName, String propValue) {
+            //any string is a valid value
+        }
+    }
+
+    private static final class BooleanValue extends PropertyValidator {
+        BooleanValue(Pattern pattern, String[] allowedValues) {
+            super(pattern, allowedValues);
+        }
+
+        @Override
+        void checkType(String propName, String propValue) {
+            PropertyLoader.parseBoolean(propValue, propName);
+        }
+    }
+
+    private static final class IntegerNumber extends PropertyValidator {
+        private final long min;
+        private final long max;
+
+        IntegerNumber(long min, long max, Pattern pattern, String[] allowedValues) {
+            super(pattern, allowedValues);
+            checkBounds(min > max);
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        void checkType(String propName, String propValue) {
+            int value = PropertyLoader.parseInt(propValue, propName);
+            checkRange(propName, propValue, value < min, value > max, min, max);
+        }
+    }
+
+    private static final class LongNumber extends PropertyValidator {
+        private final long min;
+        private final long max;
+
+        LongNumber(long min, long max, Pattern pattern, String[] allowedValues) {
+            super(pattern, allowedValues);
+            checkBounds(min > max);
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        void checkType(String propName, String propValue) {
+            long value = PropertyLoader.parseLong(propValue, propName);
+            checkRange(propName, propValue, value < min, value > max, min, max);
+        }
+    }
+
+    private static final class FloatNumber extends PropertyValidator {
+        private final double min;
+        private final double max;
+
+        FloatNumber(double min, double max, Pattern pattern, String[] allowedValues) {
+            super(pattern, allowedValues);
+            checkBounds(min > max);
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        void checkType(String propName, String propValue) {
+            double value = PropertyLoader.parseDouble(propValue, propName);
+            checkRange(propName, propValue, value < min, value > max, min, max);
+        }
+    }
+
+    /**
+     * Bounds are compared in nanoseconds and reported as they were written
+     */
+    private static final class DurationValue extends PropertyValidator {
+        private final long min;
+        private final long max;
+        private final String minText;
+        private final String maxText;
+
+        DurationValue(long min, long max, String minText, String maxText, Pattern pattern, String[] allowedValues) {
+            super(pattern, allowedValues);
+            checkBounds(min > max);
+            this.min = min;
+            this.max = max;
+            this.minText = minText;
+            this.maxText = maxText;
+        }
+
+        @Override
+        void checkType(String propName, String propValue) {
+            long value = PropertyLoader.parseDuration(propValue, propName);
+            checkRange(propName, propValue, value < min, value > max, minText, maxText);
+        }
+    }
+
+    /**
+     * Bounds are compared in bytes and reported as they were written
+     */
+    private static final class DataSizeValue extends PropertyValidator {
+        private final long min;
+        private final long max;
+        private final String minText;
+        private final String maxText;
+
+        DataSizeValue(long min, long max, String minText, String maxText, Pattern pattern, String[] allowedValues) {
+            super(pattern, allowedValues);
+            checkBounds(min > max);
+            this.min = min;
+            this.max = max;
+            this.minText = minText;
+            this.maxText = maxText;
+        }
+
+        @Override
+        void checkType(String propName, String propValue) {
+            long value = PropertyLoader.parseDataSize(propValue, propName);
+            checkRange(propName, propValue, value < min, value > max, minText, maxText);
+        }
+    }
+}
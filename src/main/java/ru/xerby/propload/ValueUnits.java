@@ -0,0 +1,72 @@
+package ru.xerby.propload;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Units of DURATION and DATA_SIZE values. A value is a non-negative integer amount followed by a unit, optionally
+ * separated by whitespace, e.g. "60s", "250 ms" or "10MB"; units are case-insensitive. Data sizes use binary multiples
+ * (1KB = 1024 bytes, as in JVM options), and a data size without a unit is in bytes. A duration must have a unit.
+ */
+final class ValueUnits {
+    private static final Map<String, Long> NANOS_PER_DURATION_UNIT = new HashMap<>();
+    private static final Map<String, Long> BYTES_PER_DATA_SIZE_UNIT = new HashMap<>();
+
+    static {
+        NANOS_PER_DURATION_UNIT.put("ns", 1L);
+        NANOS_PER_DURATION_UNIT.put("us", 1_000L);
+        NANOS_PER_DURATION_UNIT.put("µs", 1_000L);
+        NANOS_PER_DURATION_UNIT.put("ms", 1_000_000L);
+        NANOS_PER_DURATION_UNIT.put("s", 1_000_000_000L);
+        NANOS_PER_DURATION_UNIT.put("m", 60_000_000_000L);
+        NANOS_PER_DURATION_UNIT.put("min", 60_000_000_000L);
+        NANOS_PER_DURATION_UNIT.put("h", 3_600_000_000_000L);
+        NANOS_PER_DURATION_UNIT.put("d", 86_400_000_000_000L);
+
+        BYTES_PER_DATA_SIZE_UNIT.put("", 1L);
+        BYTES_PER_DATA_SIZE_UNIT.put("b", 1L);
+        String[] prefixes = {"k", "m", "g", "t"};
+        for (int i = 0; i < prefixes.length; i++) {
+            long bytes = 1L << (10 * (i + 1));
+            BYTES_PER_DATA_SIZE_UNIT.put(prefixes[i], bytes);
+            BYTES_PER_DATA_SIZE_UNIT.put(prefixes[i] + "b", bytes);
+            BYTES_PER_DATA_SIZE_UNIT.put(prefixes[i] + "ib", bytes);
+        }
+    }
+
+    private ValueUnits() {
+    }
+
+    /**
+     * @throws NumberFormatException if the value is malformed, the unit is unknown or the result overflows
+     */
+    static long parseNanos(String value) {
+        return parse(value, NANOS_PER_DURATION_UNIT);
+    }
+
+    /**
+     * @throws NumberFormatException if the value is malformed, the unit is unknown or the result overflows
+     */
+    static long parseBytes(String value) {
+        return parse(value, BYTES_PER_DATA_SIZE_UNIT);
+    }
+
+    private static long parse(String value, Map<String, Long> units) {
+        String trimmed = value.trim();
+        int unitStart = 0;
+        while (unitStart < trimmed.length() && trimmed.charAt(unitStart) >= '0' && trimmed.charAt(unitStart) <= '9')
+            unitStart++;
+        if (unitStart == 0)
+            throw new NumberFormatException("No amount in \"" + value + "\"");
+
+        Long multiplier = units.get(trimmed.substring(unitStart).trim().toLowerCase(Locale.ROOT));
+        if (multiplier == null)
+            throw new NumberFormatException("Unknown unit in \"" + value + "\"");
+        try {
+            return Math.multiplyExact(Long.parseLong(trimmed.substring(0, unitStart)), multiplier);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("\"" + value + "\" is too big");
+        }
+    }
+}
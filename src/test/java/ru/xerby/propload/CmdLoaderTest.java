@@ -4,6 +4,10 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class CmdLoaderTest {
 
@@ -182,6 +186,54 @@ public class CmdLoaderTest {
         Assert.assertTrue("Check that we get property by its name", propertyLoader.getAsBoolean("debug"));
     }
 
+    @Test
+    public void ambiguousCmdAliasesTest() {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        propertyDictionary.registerProperty(new PropertyDefinition("user_password", null, null,
+                PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false, true, PropertyDefinition.ParamType.STRING, 'p', "pass", "USER"));
+
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        try {
+            propertyLoader.loadFromCmdArgs(new String[]{"--pass", "123"});
+            Assert.fail("Aliases which are used by several properties must cause an exception");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("\"USER\" is ambiguous") && e.getMessage().contains("main_username")
+                    && e.getMessage().contains("user_password"));
+        }
+
+        propertyDictionary.remove("user_password");
+        propertyDictionary.registerProperty(new PropertyDefinition("user_password", null, null,
+                PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false, true, PropertyDefinition.ParamType.STRING, 'U', "pass"));
+        Assert.assertThrows("Char aliases are case-insensitive in case-insensitive dictionary",
+                IllegalArgumentException.class, () -> propertyLoader.loadFromCmdArgs(new String[]{"--pass", "123"}));
+
+        propertyDictionary.registerProperty(new PropertyDefinition("user_password", null, null,
+                PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false, true, PropertyDefinition.ParamType.STRING, 'p', "pass"));
+        propertyLoader.loadFromCmdArgs(new String[]{"-P", "123", "--USER", "oleg"});
+        Assert.assertEquals("123", propertyLoader.get("user_password"));
+        Assert.assertEquals("oleg", propertyLoader.get("main_username"));
+    }
+
+    @Test
+    public void cmdKeyIndexInvalidationTest() {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        Assert.assertNull(propertyDictionary.getByCmdProperty(new ParsedCmdProperty("zone", "eu", false)));
+        CompiledDictionary compiled = propertyDictionary.compile();
+
+        propertyDictionary.putIfAbsent("zone", new PropertyDefinition("zone", null, null,
+                PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false, PropertyDefinition.ParamType.STRING));
+        Assert.assertEquals("zone", propertyDictionary.getByCmdProperty(new ParsedCmdProperty("zone", "eu", false)).getName());
+        Assert.assertNotSame(compiled, propertyDictionary.compile());
+
+        propertyDictionary.pollLastEntry();
+        Assert.assertNull(propertyDictionary.getByCmdProperty(new ParsedCmdProperty("zone", "eu", false)));
+        Assert.assertThrows("Views can't bypass the invalidation", UnsupportedOperationException.class,
+                () -> propertyDictionary.keySet().remove("TTL"));
+        Assert.assertThrows(UnsupportedOperationException.class,
+                () -> propertyDictionary.entrySet().iterator().next().setValue(null));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> propertyDictionary.headMap("Z").clear());
+    }
+
     @Test
     public void cantLoadFromCmdArgsUsingLongCmdAliasInsteadOfShort() {
         PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
@@ -340,4 +392,35 @@ public class CmdLoaderTest {
             Assert.assertTrue(e.getMessage().contains("should have been an integer, but it is null"));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void loadFromCmdArgsArgumentFileOptionTest() throws IOException {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        Path argumentFile = Files.createTempFile("args", ".txt");
+        argumentFile.toFile().deleteOnExit();
+        Files.write(argumentFile, ("# comments and blank lines are skipped\n\n" +
+                "--DB_PATH \"/opt/my server/db\"  --DB_USER='user'\n" +
+                "--CITY=\"New\\tYork\" # trailing comment\n" +
+                "--DelayTime 5min\n").getBytes(StandardCharsets.UTF_8));
+        String[] cmdArgs = new String[]{"--SCHEDULED", "@" + argumentFile, "--DB_PASSWORD", "@@secret"};
+
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        propertyLoader.setArgumentFileExpansionEnabled(true);
+        propertyLoader.loadFromCmdArgs(cmdArgs);
+        Assert.assertEquals(6, propertyLoader.getProperties().size());
+        Assert.assertEquals("Quoted value must keep its whitespace", "/opt/my server/db", propertyLoader.get("DB_PATH"));
+        Assert.assertEquals("user", propertyLoader.get("DB_USER"));
+        Assert.assertEquals("New\tYork", propertyLoader.get("CITY"));
+        Assert.assertEquals("5min", propertyLoader.get("DelayTime"));
+        Assert.assertEquals("Double @ must be unescaped", "@secret", propertyLoader.get("DB_PASSWORD"));
+
+        PropertyLoader defaultPropertyLoader = new PropertyLoader(propertyDictionary);
+        //defaultPropertyLoader.setArgumentFileExpansionEnabled(false) - by default
+        defaultPropertyLoader.loadFromCmdArgs(new String[]{"--DB_PATH", "@" + argumentFile});
+        Assert.assertEquals("@" + argumentFile, defaultPropertyLoader.get("DB_PATH"));
+
+        Files.write(argumentFile, "--DB_PATH \"/opt/db".getBytes(StandardCharsets.UTF_8));
+        Assert.assertThrows(IllegalArgumentException.class, () -> propertyLoader.loadFromCmdArgs(new String[]{"@" + argumentFile}));
+        Assert.assertThrows(IllegalArgumentException.class, () -> propertyLoader.loadFromCmdArgs(new String[]{"@" + argumentFile + ".missing"}));
+    }
+}
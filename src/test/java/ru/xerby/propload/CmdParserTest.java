@@ -5,6 +5,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public class CmdParserTest {
@@ -255,4 +256,24 @@ public class CmdParserTest {
 
         Assert.assertEquals("Check toString() method ", "--delayed 5min -u=gena -g -p 8000 --mail --no-ops=false", props.toString());
     }
+
+    @Test
+    public void testKeyRegions() {
+        var props = ParsedCmdProperties.parse(new String[]{" --db path = /opt/db ", "--user", "  me ", "-u=you", "--user=them", "-vvv"}, false, true);
+
+        Assert.assertEquals("Key and value must be stripped around the equal sign", "/opt/db", props.getValue("db path"));
+        Assert.assertTrue(props.isSurelyParametrized("db path"));
+        Assert.assertEquals("The first occurrence of a key must be found", "me", props.getValue("user"));
+        Assert.assertEquals("you", props.getValue("u"));
+        Assert.assertTrue(props.containsKey("v"));
+        Assert.assertFalse(props.containsKey("vvv"));
+        Assert.assertNull(props.getParsedCmdProperty("db"));
+
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        Iterator<ParsedCmdProperty> iterator = ParsedCmdProperties.parse(new String[]{"--Db_Path=/opt/db", "--USERNAME", "me", "--dunno=1", "--Dünno=1"}, false, true).iterator();
+        Assert.assertEquals("DB_PATH", propertyDictionary.getByCmdProperty(iterator.next()).getName());
+        Assert.assertEquals("main_username", propertyDictionary.getByCmdProperty(iterator.next()).getName());
+        Assert.assertEquals("DN", propertyDictionary.getByCmdProperty(iterator.next()).getName());
+        Assert.assertNull(propertyDictionary.getByCmdProperty(iterator.next()));
+    }
 }
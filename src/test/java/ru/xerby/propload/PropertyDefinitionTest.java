@@ -3,6 +3,8 @@ package ru.xerby.propload;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Collections;
+
 public class PropertyDefinitionTest {
 
 
@@ -36,4 +38,38 @@ public class PropertyDefinitionTest {
             Assert.assertTrue(e.getMessage().contains("prohibit to change name"));
         }
     }
+
+    @Test
+    public void constraintsTest() {
+        PropertyDictionary propertyDictionary = new PropertyDictionary();
+        propertyDictionary.registerProperty(new PropertyDefinition("POOL_SIZE", null, "10", PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED,
+                false, false, PropertyDefinition.ParamType.INTEGER, "1", "64", null, null, '\0'));
+        propertyDictionary.registerProperty(new PropertyDefinition("HOST", null, null, PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED,
+                false, false, PropertyDefinition.ParamType.STRING, null, null, "[a-z.]+", null, '\0'));
+        propertyDictionary.registerProperty(new PropertyDefinition("MODE", null, null, PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED,
+                false, false, PropertyDefinition.ParamType.STRING, null, null, null, new String[]{"fast", "safe"}, '\0'));
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+
+        propertyLoader.buildProperties(new String[]{"--POOL_SIZE=64", "--HOST=db.local", "--MODE=safe"}, null, null, null);
+        Assert.assertEquals(64, propertyLoader.getAsInt("pool_size"));
+
+        IllegalArgumentException e = Assert.assertThrows(IllegalArgumentException.class,
+                () -> propertyLoader.buildProperties(new String[]{"--POOL_SIZE=65"}, null, null, null));
+        Assert.assertEquals("Property \"POOL_SIZE\" should be at most 64, but its value is 65", e.getMessage());
+        e = Assert.assertThrows(IllegalArgumentException.class,
+                () -> propertyLoader.buildProperties(new String[]{"--HOST=DB"}, null, null, null));
+        Assert.assertEquals("Property \"HOST\" should match the pattern [a-z.]+, but its value is \"DB\"", e.getMessage());
+        e = Assert.assertThrows(IllegalArgumentException.class, () -> propertyLoader.overlay(Collections.singletonMap("MODE", "slow")));
+        Assert.assertEquals("Property \"MODE\" should be one of [fast, safe], but its value is \"slow\"", e.getMessage());
+        Assert.assertEquals("db.local", propertyLoader.get("host"));
+
+        e = Assert.assertThrows(IllegalArgumentException.class, () -> new PropertyDefinition("POOL_SIZE", null, "0",
+                PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false, false, PropertyDefinition.ParamType.INTEGER, "1", null, null, null, '\0'));
+        Assert.assertEquals("Default value doesn't satisfy the constraints: Property \"POOL_SIZE\" should be at least 1, but its value is 0", e.getMessage());
+        e = Assert.assertThrows(IllegalArgumentException.class, () -> new PropertyDefinition("HOST", null, null,
+                PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false, false, PropertyDefinition.ParamType.STRING, "1", null, null, null, '\0'));
+        Assert.assertEquals("Can't set min or max for STRING property", e.getMessage());
+        Assert.assertThrows(IllegalArgumentException.class, () -> new PropertyDefinition("RATIO", null, null,
+                PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false, false, PropertyDefinition.ParamType.FLOAT, "1", "0.5", null, null, '\0'));
+    }
 }
@@ -0,0 +1,96 @@
+package ru.xerby.propload;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+public class PropertyFileReaderTest {
+    private static final String CONTENT = "# comment\n" +
+            "! another comment \\\n" +
+            "plain=value\n" +
+            "   indented : value with spaces  \n" +
+            "spaced   value\n" +
+            "spaced.equals  =  value\n" +
+            "empty=\n" +
+            "novalue\n" +
+            "\n" +
+            "   \t\n" +
+            "escaped\\ key\\=part = \\tTab\\nNew\\\\Line\\u0041\\u00e9\\q\n" +
+            "continued = first \\\n" +
+            "            second\\\r\n" +
+            "\tthird\r" +
+            "even.backslashes=a\\\\\n" +
+            "not.continued=b\n" +
+            "escape.over.continuation=\\u00\\\n" +
+            "   41\n" +
+            "double==value\n" +
+            "colon:=value\n" +
+            "latin=café\n" +
+            "duplicate=first\n" +
+            "duplicate=second\n" +
+            "unknown.key=very long value which must not be decoded \\\n" +
+            " even over continuation lines\n" +
+            "trailing=backslash\\";
+
+    @Test
+    public void sameAsPropertiesTest() throws IOException {
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.ISO_8859_1);
+        Properties expected = new Properties();
+        expected.load(new ByteArrayInputStream(bytes));
+
+        PropertyDictionary dictionary = new PropertyDictionary(true);
+        for (String key : expected.stringPropertyNames())
+            dictionary.put(key, PropertyDefinition.createKeyValueOptionalProperty(key, null));
+
+        Map<String, String> actual = new HashMap<>();
+        PropertyFileReader reader = new PropertyFileReader(ByteBuffer.wrap(bytes), dictionary.compile(), true, "test");
+        reader.readInto(actual);
+
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals("escaped key=part", "\tTab\nNew\\LineAéq", actual.get("escaped key=part"));
+        Assert.assertEquals("first secondthird", actual.get("continued"));
+        Assert.assertEquals("A", actual.get("escape.over.continuation"));
+        Assert.assertEquals(expected.size() + 1, reader.getEntryCount());
+    }
+
+    @Test
+    public void filterTest() {
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.ISO_8859_1);
+        PropertyDictionary dictionary = new PropertyDictionary();
+        dictionary.put("PLAIN", PropertyDefinition.createKeyValueOptionalProperty("PLAIN", null));
+        dictionary.put("Duplicate", PropertyDefinition.createKeyValueOptionalProperty("Duplicate", null));
+        dictionary.put("trailing", PropertyDefinition.createKeyValueOptionalProperty("trailing", null));
+
+        Map<String, String> actual = new TreeMap<>(String::compareToIgnoreCase);
+        new PropertyFileReader(ByteBuffer.wrap(bytes), dictionary.compile(), false, "test").readInto(actual);
+        Assert.assertEquals("{duplicate=second, plain=value, trailing=backslash}", actual.toString());
+
+        try {
+            new PropertyFileReader(ByteBuffer.wrap(bytes), dictionary.compile(), true, "test file").readInto(actual);
+            Assert.fail("Should throw exception, but it didn't");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Unknown property \"indented\" was found in test file", e.getMessage());
+        }
+    }
+
+    @Test
+    public void malformedEscapeTest() {
+        byte[] bytes = "key=\\u12x4".getBytes(StandardCharsets.ISO_8859_1);
+        PropertyDictionary dictionary = new PropertyDictionary(true);
+        dictionary.registerProperty(PropertyDefinition.createKeyValueOptionalProperty("key", null));
+        try {
+            new PropertyFileReader(ByteBuffer.wrap(bytes), dictionary.compile(), true, "test").readInto(new HashMap<>());
+            Assert.fail("Should throw exception, but it didn't");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Malformed \\uxxxx encoding.", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ru.xerby.propload;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class PropertyFileWatcherTest {
+
+    @Test
+    public void rebuildTest() throws IOException {
+        File temp = SharedTestCommands.generateTempPropertyFile();
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        Assert.assertThrows(IllegalStateException.class, propertyLoader::rebuild);
+
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "false", "--DB_path", "/opt/server/db"}, temp.getPath(), null, null);
+        Assert.assertEquals(temp.toPath(), propertyLoader.getExternalPropertyFile());
+        Assert.assertTrue("Nothing has changed", propertyLoader.rebuild().isEmpty());
+
+        writeProperties(temp, "DB_USER", "Egor", "TTL", "2000", "CITY", "Moscow");
+        PropertyDiff diff = propertyLoader.rebuild();
+
+        Assert.assertEquals("[CITY, DelayTime, dn, SERVER_URL, TTL]", diff.getChangedKeys().toString());
+        Assert.assertTrue(diff.isAdded("city"));
+        Assert.assertTrue(diff.isRemoved("server_url"));
+        Assert.assertEquals("DN falls back to the resource file", "3.1415", diff.getNewValue("DN"));
+        Assert.assertEquals("1000", diff.getOldValue("TTL"));
+        Assert.assertEquals("2000", diff.getNewValue("TTL"));
+        Assert.assertEquals(2000, propertyLoader.getAsInt("ttl"));
+    }
+
+    @Test
+    public void reloadOnFileChangeTest() throws IOException, InterruptedException {
+        File temp = SharedTestCommands.generateTempPropertyFile();
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "false", "--DB_path", "/opt/server/db"}, temp.getPath(), null, null);
+
+        BlockingQueue<PropertyDiff> diffs = new LinkedBlockingQueue<>();
+        try (PropertyFileWatcher watcher = propertyLoader.watchExternalPropertyFile(Duration.ofMillis(100), diffs::add)) {
+            Assert.assertEquals(temp.toPath().toAbsolutePath(), watcher.getWatchedFile());
+
+            writeProperties(temp, "DB_USER", "Egor", "TTL", "1000", "dn", "2.86", "SERVER_URL", "https://google.com", "DelayTime", "1 hour");
+            PropertyDiff diff = diffs.poll(30, TimeUnit.SECONDS);
+
+            Assert.assertNotNull("Properties must be reloaded after the file was changed", diff);
+            Assert.assertEquals("[DelayTime]", diff.getChangedKeys().toString());
+            Assert.assertEquals("1 hour", propertyLoader.get("delaytime"));
+
+            writeProperties(temp, "DB_USER", "Egor", "TTL", "not a number");
+            Assert.assertNull("Broken file must not produce a reload", diffs.poll(1, TimeUnit.SECONDS));
+            Assert.assertEquals("Previous properties must be kept if reload fails", 1000, propertyLoader.getAsInt("TTL"));
+        }
+    }
+
+    @Test
+    public void changeListenerTest() throws IOException {
+        File temp = SharedTestCommands.generateTempPropertyFile();
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        propertyLoader.setChangeListenerExecutor(tasks::add);
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "false", "--DB_path", "/opt/server/db"}, temp.getPath(), null, null);
+
+        List<PropertyDiff> ttlDiffs = new ArrayList<>();
+        List<PropertyDiff> serverDiffs = new ArrayList<>();
+        PropertyChangeListener ttlListener = ttlDiffs::add;
+        propertyLoader.addChangeListener("ttl", ttlListener);
+        propertyLoader.addChangeListener(Pattern.compile("server_.*"), serverDiffs::add);
+
+        writeProperties(temp, "DB_USER", "Egor", "TTL", "2000", "dn", "2.86", "SERVER_URL", "https://google.com", "DelayTime", "Aeons");
+        propertyLoader.rebuild();
+        Assert.assertEquals("Only the TTL listener is scheduled", 1, tasks.size());
+
+        writeProperties(temp, "DB_USER", "Egor", "TTL", "3000", "dn", "2.86", "SERVER_URL", "https://bing.com", "DelayTime", "Aeons");
+        propertyLoader.rebuild();
+        Assert.assertEquals("The second change of TTL is merged into the scheduled delivery", 2, tasks.size());
+        Assert.assertTrue("Listeners are not called in the rebuilding thread", ttlDiffs.isEmpty());
+
+        while (!tasks.isEmpty())
+            tasks.poll().run();
+        Assert.assertEquals(1, ttlDiffs.size());
+        Assert.assertEquals("[TTL]", ttlDiffs.get(0).getChangedKeys().toString());
+        Assert.assertEquals("1000", ttlDiffs.get(0).getOldValue("TTL"));
+        Assert.assertEquals("3000", ttlDiffs.get(0).getNewValue("TTL"));
+        Assert.assertEquals(1, serverDiffs.size());
+        Assert.assertEquals("[SERVER_URL]", serverDiffs.get(0).getChangedKeys().toString());
+
+        propertyLoader.removeChangeListener(ttlListener);
+        writeProperties(temp, "DB_USER", "Egor", "TTL", "4000", "dn", "2.86", "SERVER_URL", "https://bing.com", "DelayTime", "Aeons");
+        propertyLoader.rebuild();
+        Assert.assertTrue("Removed listener is not notified", tasks.isEmpty());
+    }
+
+    private static void writeProperties(File file, String... keysAndValues) throws IOException {
+        Properties properties = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2)
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        try (OutputStream stream = new FileOutputStream(file)) {
+            properties.store(stream, null);
+        }
+    }
+}
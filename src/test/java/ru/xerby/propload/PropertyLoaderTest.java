@@ -1,5 +1,6 @@
 package ru.xerby.propload;
 
+import lombok.SneakyThrows;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -7,7 +8,23 @@ import org.junit.contrib.java.lang.system.EnvironmentVariables;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
 
 public class PropertyLoaderTest {
 
@@ -289,6 +306,337 @@ public class PropertyLoaderTest {
         Assert.assertEquals("me", propertyLoader.getProperties().get("main_username"));
     }
 
+    @Test
+    public void concurrentLoadTest() {
+        File temp = SharedTestCommands.generateTempPropertyFile();
+        String[] cmdArgs = new String[]{"--DEBUG", "false", "--DB_USER", "User", "--DB_path", "/opt/server/db", "--SERVER_URL", "xerby.ru"};
+        environmentVariables.set("test_for_prefix.DB_USER", "Admin");
+        environmentVariables.set("test_for_prefix.scheduled", "");
+        environmentVariables.set("test_for_prefix.CITY", "London");
+
+        PropertyLoader sequentialLoader = new PropertyLoader(SharedTestCommands.createTestPropertyDictionary());
+        sequentialLoader.buildProperties(cmdArgs, temp.getPath(), "test_for_prefix.", "properties.properties");
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            AtomicInteger tasks = new AtomicInteger();
+            PropertyLoader concurrentLoader = new PropertyLoader(SharedTestCommands.createTestPropertyDictionary());
+            concurrentLoader.setSourceLoadingExecutor(command -> {
+                tasks.incrementAndGet();
+                executor.execute(command);
+            });
+            concurrentLoader.buildProperties(cmdArgs, temp.getPath(), "test_for_prefix.", "properties.properties");
+
+            Assert.assertEquals("File and resource must be loaded on the executor", 2, tasks.get());
+            Assert.assertEquals(sequentialLoader.getProperties(), concurrentLoader.getProperties());
+
+            environmentVariables.set("test_for_prefix.TTL", "not a number");
+            try {
+                concurrentLoader.buildProperties(cmdArgs, temp.getPath(), "test_for_prefix.", "madeUpResource.properties");
+                Assert.fail("Should throw exception, but it didn't");
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("Resource madeUpResource.properties not found", e.getMessage());
+            }
+
+            try {
+                concurrentLoader.buildProperties(cmdArgs, "absent.file", "test_for_prefix.", "madeUpResource.properties");
+                Assert.fail("Should throw exception, but it didn't");
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue("Error of the external file must win, as in sequential loading", e.getMessage().contains("absent.file not found"));
+            }
+            Assert.assertEquals("Failed builds must not change properties", sequentialLoader.getProperties(), concurrentLoader.getProperties());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void lazyLoadTest() {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        String[] cmdArgs = new String[]{"--DEBUG", "true", "--DB_USER", "User"};
+
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        propertyLoader.setLazySourceLoadingEnabled(true);
+        propertyLoader.buildProperties(cmdArgs, null, null, "missing.properties");
+        Assert.assertEquals("Properties of the command line must be read without other sources", "User", propertyLoader.get("db_user"));
+        Assert.assertTrue(propertyLoader.getAsBoolean("DEBUG"));
+        try {
+            propertyLoader.get("TTL");
+            Assert.fail("Should throw exception, but it didn't");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue("The resource must be read when a property isn't in the command line", e.getMessage().contains("missing.properties"));
+        }
+
+        propertyLoader = new PropertyLoader(propertyDictionary);
+        propertyLoader.setLazySourceLoadingEnabled(true);
+        propertyLoader.buildProperties(cmdArgs, null, null, null);
+        Assert.assertEquals(5, propertyLoader.getAsInt("TTL"));
+        Assert.assertEquals("Default value must be set after all sources", "me", propertyLoader.get("main_username"));
+        Assert.assertNull(propertyLoader.get("CITY"));
+        long generation = propertyLoader.getSnapshot().getGeneration();
+        Assert.assertNull(propertyLoader.get("SERVER_URL"));
+        Assert.assertEquals("Sources must not be read again", generation, propertyLoader.getSnapshot().getGeneration());
+        try {
+            propertyLoader.get("DB_PATH");
+            Assert.fail("Should throw exception, but it didn't");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Property \"DB_PATH\" is required, but it's not set", e.getMessage());
+        }
+        Assert.assertThrows(IllegalArgumentException.class, propertyLoader::validateAll);
+
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "true", "--DB_PATH", "/opt/db"}, null, null, null);
+        propertyLoader.validateAll();
+        Assert.assertEquals("Nongor", propertyLoader.getProperties().get("DB_USER"));
+    }
+
+    @Test
+    public void loadListenerTest() throws URISyntaxException {
+        File temp = SharedTestCommands.generateTempPropertyFile();
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        List<PropertyLoadEvent> events = new ArrayList<>();
+        propertyLoader.addLoadListener(events::add);
+        propertyLoader.addLoadListener(event -> {
+            throw new IllegalStateException("Failing listener must not break loading");
+        });
+
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "true", "--DB_USER", "User", "--DB_PATH", "/opt/db"}, temp.getAbsolutePath(), null, null);
+
+        Assert.assertEquals(Arrays.asList(PropertyLoadEvent.Stage.COMMAND_LINE, PropertyLoadEvent.Stage.EXTERNAL_FILE, PropertyLoadEvent.Stage.ENVIRONMENT,
+                        PropertyLoadEvent.Stage.RESOURCE, PropertyLoadEvent.Stage.DEFAULTS),
+                events.stream().map(PropertyLoadEvent::getStage).collect(Collectors.toList()));
+        for (PropertyLoadEvent event : events)
+            Assert.assertTrue(event.toString(), event.getEndNanos() >= event.getStartNanos());
+
+        PropertyLoadEvent cmd = events.get(0);
+        Assert.assertEquals(3, cmd.getKeysRead());
+        Assert.assertEquals(3, cmd.getKeysAccepted());
+        PropertyLoadEvent file = events.get(1);
+        Assert.assertEquals(6, file.getKeysRead());
+        Assert.assertEquals("DB_USER is set in the command line and REDUNDANT is unknown", 4, file.getKeysAccepted());
+        Assert.assertEquals(2, file.getKeysRejected());
+        Assert.assertEquals(temp.length(), file.getBytesRead());
+        PropertyLoadEvent resource = events.get(3);
+        Assert.assertEquals(9, resource.getKeysRead());
+        Assert.assertEquals("Only DELAYED isn't set by other sources", 1, resource.getKeysAccepted());
+        Assert.assertEquals(new File(getClass().getClassLoader().getResource("properties.properties").toURI()).length(), resource.getBytesRead());
+        PropertyLoadEvent defaults = events.get(4);
+        Assert.assertEquals(5, defaults.getKeysRead());
+        Assert.assertEquals(1, defaults.getKeysAccepted());
+    }
+
+    @Test
+    public void mBeanTest() throws Exception {
+        PropertyLoader propertyLoader = new PropertyLoader(SharedTestCommands.createTestPropertyDictionaryWithSensitiveData());
+        ObjectName name = propertyLoader.registerMBean("ru.xerby.propload:type=PropertyLoader,name=mBeanTest");
+        try {
+            PropertyLoaderMXBean mBean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(), name, PropertyLoaderMXBean.class);
+            Assert.assertEquals(0, mBean.getBuildCount());
+            Assert.assertNull(mBean.getLastFailure());
+
+            propertyLoader.buildProperties(new String[]{"--DB_USER", "Egor", "--DB_PATH", "/opt/db", "-p", "qwerty", "-u", "admin"}, null, null, null);
+            Assert.assertEquals(1, mBean.getBuildCount());
+            Assert.assertEquals(0, mBean.getReloadCount());
+            Map<String, String> properties = mBean.getProperties();
+            Assert.assertEquals("Sensitive values are masked", "***", properties.get("DB_user"));
+            Assert.assertEquals("***", properties.get("user_password"));
+            Assert.assertEquals("/opt/db", properties.get("DB_PATH"));
+            Assert.assertEquals(Integer.valueOf(4), mBean.getSourceKeyCounts().get("COMMAND_LINE"));
+
+            Assert.assertEquals("Changed properties: []", mBean.rebuild());
+            Assert.assertEquals(2, mBean.getBuildCount());
+            Assert.assertEquals(1, mBean.getReloadCount());
+
+            Assert.assertThrows(IllegalArgumentException.class, () -> propertyLoader.buildProperties(new String[0], null, null, null));
+            Assert.assertEquals(2, mBean.getBuildCount());
+            Assert.assertTrue(mBean.getLastFailure(), mBean.getLastFailure().contains("IllegalArgumentException"));
+        } finally {
+            propertyLoader.unregisterMBean();
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void accessCountingTest() throws InterruptedException {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "true", "--DB_USER", "User", "--DB_PATH", "/opt/db"}, null, null, null);
+        propertyLoader.get("DB_PATH");
+        Assert.assertEquals("Reads are not counted by default", 0, propertyLoader.getAccessReport().getReadCount("DB_PATH"));
+
+        propertyLoader.setAccessCountingEnabled(true);
+        PropertyKey<Integer> ttl = PropertyKey.of(propertyDictionary, "TTL", Integer.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++)
+            executor.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    propertyLoader.getAsInt(ttl);
+                    if (j % 10 == 0)
+                        propertyLoader.getAsBoolean("debug");
+                }
+            });
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        propertyLoader.get("db_user");
+        propertyLoader.get("NOT_IN_DICTIONARY");
+
+        PropertyAccessReport report = propertyLoader.getAccessReport();
+        Assert.assertEquals(4000, report.getReadCount("TTL"));
+        Assert.assertEquals(400, report.getReadCount("DEBUG"));
+        Assert.assertEquals(Arrays.asList("TTL", "DEBUG", "DB_user"), report.getHotProperties(10));
+        Assert.assertEquals(Arrays.asList("TTL"), report.getHotProperties(1));
+        Assert.assertTrue(report.getNeverReadProperties().contains("DB_PATH"));
+        Assert.assertFalse(report.getNeverReadProperties().contains("DB_user"));
+        Assert.assertEquals(propertyDictionary.size(), report.getReadCounts().size());
+
+        propertyDictionary.registerProperty(PropertyDefinition.createKeyValueOptionalProperty("COUNTRY", null));
+        propertyLoader.getAsInt(ttl);
+        report = propertyLoader.getAccessReport();
+        Assert.assertEquals("Counts are kept when the dictionary is changed", 4001, report.getReadCount("TTL"));
+        Assert.assertTrue(report.getNeverReadProperties().contains("COUNTRY"));
+    }
+
+    @Test
+    public void accessCountingSharedDefinitionsTest() {
+        PropertyDefinition first = PropertyDefinition.createKeyValueOptionalProperty("FIRST", null);
+        PropertyDefinition second = PropertyDefinition.createKeyValueOptionalProperty("SECOND", null);
+        PropertyDictionary propertyDictionary = new PropertyDictionary();
+        propertyDictionary.registerProperty(first);
+        propertyDictionary.registerProperty(second);
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary.compile());
+        propertyLoader.setAccessCountingEnabled(true);
+        propertyLoader.buildProperties(new String[]{"--FIRST=1", "--SECOND=2"}, null, null, null);
+
+        PropertyDictionary otherDictionary = new PropertyDictionary();
+        otherDictionary.registerProperty(second);
+        PropertyKey<String> otherKey = PropertyKey.of(otherDictionary.compile(), "SECOND", String.class);
+
+        Assert.assertEquals("2", propertyLoader.get("SECOND"));
+        Assert.assertEquals("2", propertyLoader.get(otherKey));
+        Assert.assertEquals("1", propertyLoader.get("FIRST"));
+        PropertyAccessReport report = propertyLoader.getAccessReport();
+        Assert.assertEquals(2, report.getReadCount("SECOND"));
+        Assert.assertEquals(1, report.getReadCount("FIRST"));
+    }
+
+    @Test
+    public void compiledDictionaryTest() throws InterruptedException {
+        String propertyPath = System.getProperty("user.dir") + File.separator + "src" + File.separator + "test" + File.separator + "resources" + File.separator + "other_properties.properties";
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        CompiledDictionary compiledDictionary = propertyDictionary.compile();
+        Assert.assertSame("Compiled dictionary is cached until the dictionary is changed", compiledDictionary, propertyDictionary.compile());
+        Assert.assertEquals(propertyDictionary.size(), compiledDictionary.size());
+        Assert.assertSame(propertyDictionary.get("DB_USER"), compiledDictionary.get("db_user"));
+        Assert.assertNull(compiledDictionary.get("user"));
+        PropertyKey<Integer> ttl = PropertyKey.of(compiledDictionary, "ttl", Integer.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            String[] cmdArgs = new String[]{"--DB_USER", "User" + i, "--DB_PATH", "/opt/db", "--TTL", String.valueOf(i), "--property-file", propertyPath};
+            results.add(executor.submit(() -> {
+                PropertyLoader propertyLoader = new PropertyLoader(compiledDictionary);
+                propertyLoader.buildProperties(cmdArgs, null, null, null);
+                Assert.assertEquals("property-file works without changing the dictionary", "Mario", propertyLoader.get("main_username"));
+                Assert.assertFalse(propertyLoader.getProperties().containsKey("property-file"));
+                return propertyLoader.getAsInt(ttl);
+            }));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        for (int i = 0; i < results.size(); i++)
+            Assert.assertEquals(Integer.valueOf(i), await(results.get(i)));
+
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        propertyLoader.buildProperties(new String[]{"--DB_USER", "User", "--DB_PATH", "/opt/db", "--property-file", propertyPath}, null, null, null);
+        Assert.assertEquals("Mario", propertyLoader.get("main_username"));
+        Assert.assertFalse("Building doesn't register property-file in the dictionary", propertyDictionary.containsKey("property-file"));
+        Assert.assertSame(compiledDictionary, propertyDictionary.compile());
+
+        PropertyDictionary otherDictionary = new PropertyDictionary();
+        otherDictionary.registerProperty(propertyDictionary.get("TTL"));
+        CompiledDictionary otherCompiled = otherDictionary.compile();
+        int ordinal = compiledDictionary.getDefinitions().indexOf(propertyDictionary.get("TTL"));
+        Assert.assertEquals(0, otherCompiled.ordinalOf(propertyDictionary.get("TTL")));
+        Assert.assertEquals("Compiling a shared definition doesn't change its ordinal in other dictionaries",
+                ordinal, compiledDictionary.ordinalOf(propertyDictionary.get("TTL")));
+        Assert.assertEquals(-1, otherCompiled.ordinalOf(propertyDictionary.get("DB_USER")));
+    }
+
+    @SneakyThrows
+    private static <T> T await(Future<T> future) {
+        return future.get();
+    }
+
+    @Test
+    public void systemPropertiesTest() {
+        String propertyPath = System.getProperty("user.dir") + File.separator + "src" + File.separator + "test" + File.separator + "resources" + File.separator + "other_properties.properties";
+        environmentVariables.set("test.CITY", "London");
+        environmentVariables.set("test.SERVER_URL", "Localhost");
+        System.setProperty("test.CITY", "Paris");
+        System.setProperty("test.Property-File", propertyPath);
+        try {
+            PropertyLoader propertyLoader = new PropertyLoader(SharedTestCommands.createTestPropertyDictionary());
+            String[] cmdArgs = new String[]{"--DEBUG", "false", "--DB_USER", "User", "--DB_path", "/opt/server/db"};
+            propertyLoader.buildProperties(cmdArgs, null, "test.", "properties.properties");
+            Assert.assertEquals("System properties are disabled by default", "London", propertyLoader.get("CITY"));
+            Assert.assertNull(propertyLoader.getExternalPropertyFile());
+
+            propertyLoader.setCanLoadFromSystemProperties(true);
+            propertyLoader.buildProperties(cmdArgs, null, "test.", "properties.properties");
+            Assert.assertEquals("System properties have priority over the environment", "Paris", propertyLoader.get("CITY"));
+            Assert.assertEquals("Localhost", propertyLoader.get("SERVER_URL"));
+            Assert.assertEquals("property-file can be set by a system property", "Mario", propertyLoader.get("main_username"));
+
+            System.setProperty("test.REDUNDANT", "1");
+            try {
+                propertyLoader.buildProperties(cmdArgs, null, "test.", "properties.properties");
+                Assert.fail("Should throw exception, but it didn't");
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("Unknown property \"REDUNDANT\" was found in system properties (prefix \"test.\")", e.getMessage());
+            }
+        } finally {
+            System.clearProperty("test.CITY");
+            System.clearProperty("test.Property-File");
+            System.clearProperty("test.REDUNDANT");
+        }
+    }
+
+    @Test
+    public void propertyFilePrefixCaseTest() {
+        String propertyPath = System.getProperty("user.dir") + File.separator + "src" + File.separator + "test" + File.separator + "resources" + File.separator + "other_properties.properties";
+        environmentVariables.set("APP_PROPERTY-FILE", propertyPath);
+        environmentVariables.set("APP_CITY", "London");
+        PropertyLoader propertyLoader = new PropertyLoader(SharedTestCommands.createTestPropertyDictionary());
+        propertyLoader.buildProperties(new String[]{"--DB_USER", "User", "--DB_path", "/opt/server/db"}, null, "app_", null);
+        Assert.assertEquals("property-file is found with the prefix in any case", "Mario", propertyLoader.get("main_username"));
+        Assert.assertNull("Other properties must match the prefix exactly", propertyLoader.get("CITY"));
+    }
+
+    @Test
+    public void typedGettersTest() {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        propertyDictionary.registerProperty(new PropertyDefinition("BIG", null, "9000000000",
+                PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, false, PropertyDefinition.ParamType.LONG));
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+
+        String[] cmdArgs = new String[]{"--DEBUG", " Yes ", "--DB_USER", "User", "--DB_path", "/opt/server/db", "--dn", "2.5", "--CITY", "42"};
+        propertyLoader.buildProperties(cmdArgs, null, null, null);
+
+        Assert.assertTrue(propertyLoader.getAsBoolean("debug"));
+        Assert.assertEquals("TTL comes from the default resource file", 5, propertyLoader.getAsInt("ttl"));
+        Assert.assertEquals("Integer values can be read as long", 5L, propertyLoader.getAsLong("TTL"));
+        Assert.assertEquals(9000000000L, propertyLoader.getAsLong("big"));
+        Assert.assertEquals(2.5, propertyLoader.getAsDouble("DN"), 0.0);
+        Assert.assertEquals("String properties are parsed on demand", 42, propertyLoader.getAsInt("city"));
+        Assert.assertThrows(NumberFormatException.class, () -> propertyLoader.getAsInt("big"));
+        Assert.assertThrows(NumberFormatException.class, () -> propertyLoader.getAsInt("DB_USER"));
+
+        propertyLoader.buildProperties(new String[]{"--DEBUG=n", "--DB_USER", "User", "--DB_path", "/opt/server/db", "--TTL=15"}, null, null, null);
+        Assert.assertFalse("Typed values must be refreshed after rebuild", propertyLoader.getAsBoolean("debug"));
+        Assert.assertEquals(15, propertyLoader.getAsInt("ttl"));
+    }
+
     @Test
     public void notAllRequiredPropertiesWereDefinedTest() {
         String temp = SharedTestCommands.generateTempPropertyFile().getPath();
@@ -506,4 +854,89 @@ public class PropertyLoaderTest {
 
         Assert.assertTrue(propertyLoader.isCaseSensitive());
     }
+
+    @Test
+    public void parallelValidationTest() {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        ForkJoinPool validationPool = new ForkJoinPool(4);
+        propertyLoader.setValidationPool(validationPool);
+        try {
+            PropertyValidationException e = Assert.assertThrows(PropertyValidationException.class,
+                    () -> propertyLoader.buildProperties(new String[]{"--TTL", "abc", "--DN", "x", "--DEBUG="}, null, null, null));
+            Assert.assertEquals("All the invalid properties must be reported at once", 4, e.getFailures().size());
+            Assert.assertTrue(e.getFailures().get(0).getMessage().contains("DB_PATH"));
+            Assert.assertTrue(e.getFailures().get(1).getMessage().contains("DEBUG"));
+            Assert.assertTrue(e.getFailures().get(2).getMessage().contains("DN"));
+            Assert.assertTrue(e.getFailures().get(3).getMessage().contains("TTL"));
+            Assert.assertEquals("Failed build must keep the previous snapshot", 0, propertyLoader.getSnapshot().getGeneration());
+
+            propertyLoader.buildProperties(new String[]{"--DB_PATH", "/opt/server/db", "--DELAYED"}, null, null, null);
+            PropertyLoader sequentialLoader = new PropertyLoader(propertyDictionary);
+            sequentialLoader.buildProperties(new String[]{"--DB_PATH", "/opt/server/db", "--DELAYED"}, null, null, null);
+            Assert.assertEquals(sequentialLoader.getProperties(), propertyLoader.getProperties());
+            Assert.assertEquals(5, propertyLoader.getAsInt("ttl"));
+            Assert.assertTrue(propertyLoader.getProperties().containsKey("delayed"));
+        } finally {
+            validationPool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelValidationSplitTest() {
+        PropertyDictionary propertyDictionary = new PropertyDictionary();
+        Map<String, String> properties = new HashMap<>();
+        List<String> expectedFailures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String name = String.format("P%03d", i);
+            propertyDictionary.registerProperty(new PropertyDefinition(name, null, null, PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED,
+                    false, PropertyDefinition.ParamType.INTEGER));
+            properties.put(name, i % 7 == 0 ? "x" + i : String.valueOf(i));
+            if (i % 7 == 0)
+                expectedFailures.add(name);
+        }
+
+        ForkJoinPool validationPool = new ForkJoinPool(4);
+        try {
+            List<IllegalArgumentException> failures = validationPool.invoke(new PropertyValidationTask(propertyDictionary.compile(), properties, 4));
+            List<String> failedNames = new ArrayList<>();
+            for (IllegalArgumentException failure : failures)
+                failedNames.add(failure.getMessage().substring(0, 4));
+            Assert.assertEquals("Failures of the split ranges must come back in the order of the dictionary", expectedFailures, failedNames);
+        } finally {
+            validationPool.shutdown();
+        }
+    }
+
+    @Test
+    public void checkValueTypeOverrideTest() {
+        List<String> checkedNames = new ArrayList<>();
+        PropertyLoader propertyLoader = new PropertyLoader(SharedTestCommands.createTestPropertyDictionary()) {
+            @Override
+            protected void checkValueType(String propName, String propValue, PropertyDefinition.ParamType paramType) {
+                synchronized (checkedNames) {
+                    checkedNames.add(propName);
+                }
+                if (propValue != null && propValue.startsWith("-"))
+                    throw new IllegalArgumentException("Property \"" + propName + "\" can't be negative");
+                super.checkValueType(propName, propValue, paramType);
+            }
+        };
+
+        IllegalArgumentException e = Assert.assertThrows(IllegalArgumentException.class,
+                () -> propertyLoader.buildProperties(new String[]{"--DB_PATH", "/opt/server/db", "--TTL=-5"}, null, null, null));
+        Assert.assertEquals("Property \"TTL\" can't be negative", e.getMessage());
+
+        ForkJoinPool validationPool = new ForkJoinPool(2);
+        propertyLoader.setValidationPool(validationPool);
+        try {
+            PropertyValidationException failures = Assert.assertThrows(PropertyValidationException.class,
+                    () -> propertyLoader.buildProperties(new String[]{"--DB_PATH", "/opt/server/db", "--TTL=-5"}, null, null, null));
+            Assert.assertEquals("Property \"TTL\" can't be negative", failures.getFailures().get(0).getMessage());
+        } finally {
+            validationPool.shutdown();
+        }
+        Assert.assertTrue(checkedNames.contains("DB_PATH"));
+    }
 }
+
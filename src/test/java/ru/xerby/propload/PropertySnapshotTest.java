@@ -0,0 +1,267 @@
+package ru.xerby.propload;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PropertySnapshotTest {
+
+    @Test
+    public void pinnedSnapshotTest() {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        Assert.assertEquals("Initial snapshot must be empty", 0, propertyLoader.getSnapshot().size());
+        Assert.assertEquals(0, propertyLoader.getSnapshot().getGeneration());
+
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "false", "--DB_USER", "User", "--DB_path", "/opt/server/db", "--TTL", "10"}, null, null, null);
+        PropertySnapshot pinned = propertyLoader.getSnapshot();
+
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "true", "--DB_USER", "Admin", "--DB_path", "/opt/server/db", "--TTL", "20"}, null, null, null);
+        PropertySnapshot current = propertyLoader.getSnapshot();
+
+        Assert.assertTrue("Each build must produce a new generation", current.getGeneration() > pinned.getGeneration());
+        Assert.assertEquals("Pinned snapshot must not change after rebuild", "User", pinned.get("db_user"));
+        Assert.assertEquals(10, pinned.getAsInt("ttl"));
+        Assert.assertFalse(pinned.getAsBoolean("debug"));
+        Assert.assertEquals("Admin", current.get("db_user"));
+        Assert.assertEquals(20, propertyLoader.getAsInt("ttl"));
+        Assert.assertThrows("Snapshot must be immutable", UnsupportedOperationException.class, () -> current.getProperties().put("CITY", "Paris"));
+
+        try {
+            propertyLoader.buildProperties(new String[]{"--DEBUG", "true", "--DB_USER", "Admin"}, null, null, null);
+            Assert.fail("Should throw exception, but it didn't");
+        } catch (IllegalArgumentException e) {
+            Assert.assertSame("Failed build must keep the previous snapshot", current, propertyLoader.getSnapshot());
+        }
+    }
+
+    @Test
+    public void readersNeverSeeHalfBuiltPropertiesTest() throws InterruptedException {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        String[] cmdArgs = new String[]{"--DEBUG", "false", "--DB_USER", "User", "--DB_path", "/opt/server/db"};
+        propertyLoader.buildProperties(cmdArgs, null, null, null);
+        int expectedSize = propertyLoader.getProperties().size();
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!stop.get()) {
+                PropertySnapshot snapshot = propertyLoader.getSnapshot();
+                if (snapshot.size() != expectedSize || !"User".equals(snapshot.get("DB_USER")))
+                    failure.set("Reader saw " + snapshot.getProperties());
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 200; i++)
+            propertyLoader.buildProperties(cmdArgs, null, null, null);
+        stop.set(true);
+        reader.join();
+
+        Assert.assertNull(failure.get());
+    }
+
+    @Test
+    public void propertyKeyTest() {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyKey<Integer> ttl = PropertyKey.of(propertyDictionary, "ttl", Integer.class);
+        PropertyKey<Boolean> debug = PropertyKey.of(propertyDictionary, "DEBUG", Boolean.class);
+        PropertyKey<Boolean> delayed = PropertyKey.of(propertyDictionary, "delayed", Boolean.class);
+        PropertyKey<Double> dn = PropertyKey.of(propertyDictionary, "DN", Double.class);
+        PropertyKey<String> city = PropertyKey.of(propertyDictionary, "CITY", String.class);
+        Assert.assertEquals(PropertyDefinition.ParamType.INTEGER, ttl.getParamType());
+        Assert.assertThrows(IllegalArgumentException.class, () -> PropertyKey.of(propertyDictionary, "TTL", String.class));
+        Assert.assertThrows(IllegalArgumentException.class, () -> PropertyKey.of(propertyDictionary, "unknown", String.class));
+
+        //building doesn't change the dictionary, so the keys resolved before keep their ordinals
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "true", "--DB_USER", "User", "--DB_path", "/opt/server/db", "--DN=0.5"}, null, null, null);
+        Assert.assertEquals(5, propertyLoader.getAsInt(ttl));
+        Assert.assertEquals(Integer.valueOf(5), propertyLoader.get(ttl));
+        Assert.assertTrue(propertyLoader.getAsBoolean(debug));
+        Assert.assertTrue(propertyLoader.getAsBoolean(delayed));
+        Assert.assertEquals(0.5, propertyLoader.getAsDouble(dn), 0);
+        Assert.assertNull(propertyLoader.get(city));
+
+        PropertySnapshot pinned = propertyLoader.getSnapshot();
+        propertyDictionary.registerProperty(PropertyDefinition.createKeyValueOptionalProperty("A_FIRST", null));
+        Assert.assertEquals("Snapshot built before the dictionary change must still find the values", 5, pinned.getAsInt(ttl));
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "false", "--DB_USER", "User", "--DB_path", "/opt/server/db", "--TTL", "20"}, null, null, null);
+        Assert.assertEquals(20, propertyLoader.getAsInt(ttl));
+        Assert.assertFalse(propertyLoader.get(debug));
+        Assert.assertTrue("DELAYED is set in the resource", propertyLoader.get(delayed));
+
+        PropertyKey<Integer> foreignTtl = PropertyKey.of(SharedTestCommands.createTestPropertyDictionary(), "TTL", Integer.class);
+        Assert.assertEquals("Key of another dictionary must be found by name", 20, propertyLoader.getAsInt(foreignTtl));
+    }
+
+    @Test
+    public void overlayTest() {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "true", "--DB_USER", "User", "--DB_path", "/opt/server/db"}, null, null, null);
+        PropertySnapshot base = propertyLoader.getSnapshot();
+        PropertyKey<Integer> ttl = PropertyKey.of(propertyDictionary, "TTL", Integer.class);
+        PropertyKey<String> dbPath = PropertyKey.of(propertyDictionary, "DB_PATH", String.class);
+        Assert.assertEquals(Integer.valueOf(5), base.get(ttl));
+
+        Map<String, String> tenantOverrides = new HashMap<>();
+        tenantOverrides.put("ttl", "100");
+        tenantOverrides.put("city", "Paris");
+        PropertyOverlay tenant = propertyLoader.overlay(tenantOverrides);
+        Assert.assertSame("The base is shared, not copied", base, tenant.getBase());
+        Assert.assertEquals(100, tenant.getAsInt("TTL"));
+        Assert.assertEquals(Integer.valueOf(100), tenant.get(ttl));
+        Assert.assertEquals("Handle reads of an overlay fall through to the base", "/opt/server/db", tenant.get(dbPath));
+        Assert.assertEquals("Paris", tenant.get("CITY"));
+        Assert.assertEquals("Reads fall through to the base", "User", tenant.get("db_user"));
+        Assert.assertTrue(tenant.getAsBoolean("debug"));
+        Assert.assertEquals("The base is not changed", 5, propertyLoader.getAsInt(ttl));
+
+        PropertyOverlay request = tenant.with(Collections.singletonMap("TTL", "200"));
+        Assert.assertEquals(200, request.getAsInt(ttl));
+        Assert.assertEquals("/opt/server/db", request.get(dbPath));
+        Assert.assertEquals("Paris", request.get("city"));
+        Assert.assertEquals(100, tenant.getAsInt(ttl));
+
+        Assert.assertThrows("Overrides are validated", IllegalArgumentException.class,
+                () -> propertyLoader.overlay(Collections.singletonMap("TTL", "not a number")));
+        Assert.assertThrows(IllegalArgumentException.class, () -> propertyLoader.overlay(Collections.singletonMap("unknown", "1")));
+
+        propertyLoader.buildProperties(new String[]{"--DEBUG", "false", "--DB_USER", "User", "--DB_path", "/opt/server/db"}, null, null, null);
+        Assert.assertTrue("Overlay stays on its base after a rebuild", tenant.getAsBoolean("debug"));
+    }
+
+    @Test
+    public void persistentPropertyMapTest() {
+        PropertyDictionary propertyDictionary = SharedTestCommands.createTestPropertyDictionary();
+        CompiledDictionary dictionary = propertyDictionary.compile();
+        PersistentPropertyMap empty = PersistentPropertyMap.empty(false);
+        PersistentPropertyMap first = empty.with("TTL", "10", dictionary.get("TTL")).with("DB_USER", "User", dictionary.get("DB_USER"));
+        Assert.assertEquals(0, empty.size());
+        Assert.assertEquals(2, first.size());
+        Assert.assertEquals("10", first.get("ttl"));
+        Assert.assertSame("Setting the same value must not copy the map", first, first.with("TTL", "10", dictionary.get("TTL")));
+
+        PersistentPropertyMap second = first.with("ttl", "20", dictionary.get("TTL")).without("db_user");
+        Assert.assertEquals("Old generation must stay readable", "User", first.get("DB_USER"));
+        Assert.assertEquals(20, new PropertySnapshot(2, second, dictionary).getAsInt("TTL"));
+        Assert.assertEquals(Collections.singletonMap("ttl", "20"), second);
+        Assert.assertSame(empty, empty.without("TTL"));
+
+        Map<String, String> properties = new HashMap<>();
+        PersistentPropertyMap many = PersistentPropertyMap.empty(true);
+        for (int i = 0; i < 5000; i++) {
+            properties.put("key" + i, "value" + i);
+            many = many.with("key" + i, "value" + i, null);
+        }
+        Assert.assertEquals(properties, many);
+        //"Aa" and "BB" have equal hashes
+        many = many.with("Aa", "1", null).with("BB", "2", null);
+        Assert.assertEquals("1", many.get("Aa"));
+        Assert.assertEquals("2", many.get("BB"));
+        Assert.assertEquals("1", many.without("BB").get("Aa"));
+
+        properties.remove("key7");
+        properties.put("key8", "changed");
+        properties.put("Aa", "1");
+        properties.put("BB", "2");
+        PersistentPropertyMap.Builder builder = many.builder(dictionary);
+        builder.remove("key7");
+        builder.put("key8", "changed");
+        builder.put("key9", "value9");
+        PersistentPropertyMap updated = builder.build();
+        Assert.assertEquals(properties, updated);
+        Assert.assertEquals("value7", many.get("key7"));
+        Assert.assertEquals("value8", many.get("key8"));
+        builder.put("key9", "changed after build");
+        Assert.assertEquals("Built map must not change with the builder", "value9", updated.get("key9"));
+
+        PersistentPropertyMap.Builder fromScratch = PersistentPropertyMap.empty(true).builder(dictionary);
+        fromScratch.putAll(properties);
+        Assert.assertEquals(properties, fromScratch.build());
+
+        Set<String> changedKeys = new TreeSet<>();
+        many.forEachDifference(updated, changedKeys::add);
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("key7", "key8")), changedKeys);
+        changedKeys.clear();
+        many.forEachDifference(many.with("BB", "3", null).without("Aa").with("key10", "changed", null), changedKeys::add);
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("Aa", "BB", "key10")), changedKeys);
+
+        PersistentPropertyMap.Builder rebuilder = updated.rebuilder(dictionary);
+        Assert.assertFalse("Rebuilder shows only the properties put into it", rebuilder.containsKey("key8"));
+        properties.remove("key9");
+        properties.put("key1", "changed");
+        rebuilder.putAll(properties);
+        Assert.assertEquals(properties.size(), rebuilder.size());
+        PersistentPropertyMap rebuilt = rebuilder.build();
+        Assert.assertEquals(properties, rebuilt);
+        Assert.assertSame("Unchanged entries are reused", updated.getEntry("key2"), rebuilt.getEntry("key2"));
+        changedKeys.clear();
+        updated.forEachDifference(rebuilt, changedKeys::add);
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("key1", "key9")), changedKeys);
+    }
+
+    @Test
+    public void rebuildSharingTest() {
+        PropertyLoader propertyLoader = new PropertyLoader(SharedTestCommands.createTestPropertyDictionary());
+        propertyLoader.buildProperties(new String[]{"--TTL", "5", "--DB_USER", "User", "--DB_path", "/opt/server/db"}, null, null, null);
+        PropertySnapshot first = propertyLoader.getSnapshot();
+        propertyLoader.buildProperties(new String[]{"--TTL", "6", "--DB_USER", "User", "--CITY", "Paris", "--DB_path", "/opt/server/db"}, null, null, null);
+        PropertySnapshot second = propertyLoader.getSnapshot();
+
+        Assert.assertEquals(6, second.getAsInt("TTL"));
+        Assert.assertSame("A rebuild reuses the entries it loads unchanged",
+                first.getPropertyMap().getEntry("DB_USER"), second.getPropertyMap().getEntry("DB_USER"));
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("CITY", "TTL")), PropertyDiff.between(first, second).getChangedKeys());
+
+        propertyLoader.buildProperties(new String[]{"--TTL", "6", "--DB_path", "/opt/server/db"}, null, null, null);
+        Assert.assertFalse("Properties which are not loaded again are dropped", propertyLoader.getSnapshot().containsKey("CITY"));
+    }
+
+    @Test
+    public void durationAndDataSizeTest() {
+        PropertyDictionary propertyDictionary = new PropertyDictionary();
+        propertyDictionary.registerProperty(new PropertyDefinition("TIMEOUT", null, "30s", PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED,
+                false, false, PropertyDefinition.ParamType.DURATION, null, "1h", null, null, '\0'));
+        propertyDictionary.registerProperty(new PropertyDefinition("MAX_UPLOAD", null, "10MB", PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED,
+                false, PropertyDefinition.ParamType.DATA_SIZE));
+        propertyDictionary.registerProperty(new PropertyDefinition("BUFFER", null, null, PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED,
+                false, PropertyDefinition.ParamType.DATA_SIZE));
+        PropertyLoader propertyLoader = new PropertyLoader(propertyDictionary);
+
+        propertyLoader.buildProperties(new String[]{"--BUFFER=512"}, null, null, null);
+        Assert.assertEquals(Duration.ofSeconds(30), propertyLoader.getAsDuration("timeout"));
+        Assert.assertEquals(10L * 1024 * 1024, propertyLoader.getAsBytes("max_upload"));
+        Assert.assertEquals(512, propertyLoader.getAsBytes("buffer"));
+
+        PropertyKey<Duration> timeout = PropertyKey.of(propertyDictionary, "TIMEOUT", Duration.class);
+        PropertyKey<Long> maxUpload = PropertyKey.of(propertyDictionary, "MAX_UPLOAD", Long.class);
+        propertyLoader.buildProperties(new String[]{"--TIMEOUT=250 ms", "--MAX_UPLOAD=2gb"}, null, null, null);
+        Assert.assertEquals(Duration.ofMillis(250), propertyLoader.getAsDuration(timeout));
+        Assert.assertEquals(2L << 30, propertyLoader.getAsBytes(maxUpload));
+        Assert.assertEquals(Long.valueOf(2L << 30), propertyLoader.get(maxUpload));
+        Assert.assertEquals(Duration.ofMinutes(1), propertyLoader.overlay(Collections.singletonMap("timeout", "PT1M")).getAsDuration(timeout));
+        Assert.assertEquals(Duration.ofSeconds(5), propertyLoader.overlay(Collections.singletonMap("timeout", "pt5s")).getAsDuration(timeout));
+        Assert.assertEquals(Duration.ofSeconds(5), propertyLoader.overlay(Collections.singletonMap("timeout", " PT5S")).getAsDuration(timeout));
+
+        IllegalArgumentException e = Assert.assertThrows(IllegalArgumentException.class,
+                () -> propertyLoader.buildProperties(new String[]{"--TIMEOUT=60"}, null, null, null));
+        Assert.assertEquals("TIMEOUT should have been a duration like 60s, but input string: \"60\"", e.getMessage());
+        e = Assert.assertThrows(IllegalArgumentException.class,
+                () -> propertyLoader.buildProperties(new String[]{"--TIMEOUT=2h"}, null, null, null));
+        Assert.assertEquals("Property \"TIMEOUT\" should be at most 1h, but its value is 2h", e.getMessage());
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> propertyLoader.buildProperties(new String[]{"--MAX_UPLOAD=10XB"}, null, null, null));
+        Assert.assertEquals("Failed builds must keep the previous snapshot", Duration.ofMillis(250), propertyLoader.getAsDuration("timeout"));
+    }
+}
@@ -7,7 +7,12 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class PropertyYamlTest {
     File file = Paths.get("test.yaml").toFile();
@@ -116,11 +121,31 @@ public class PropertyYamlTest {
         Assert.assertEquals(3, delayTime.getCmdAliases().length);
         Assert.assertEquals('l', delayTime.getCharCmdAlias());
         Assert.assertEquals(PropertyDefinition.ParametrizationDegree.PARAMETER_OPTIONAL, dbPath.getParametrization());
+        Assert.assertEquals("0", delayTime.getMin());
+        Assert.assertEquals("3600", delayTime.getMax());
 
         PropertyDefinition user = propertyDictionary.get("MAIN_USERNAME");
         Assert.assertEquals("me", user.getDefaultValue());
         Assert.assertEquals(3, user.getCmdAliases().length);
         Assert.assertEquals(PropertyDefinition.ParametrizationDegree.PARAMETER_REQUIRED, user.getParametrization());
+        Assert.assertEquals("[a-z]+", user.getPattern());
+    }
+
+    @Test
+    public void loadCaseSensitiveResourceTest() {
+        PropertyDictionary propertyDictionary = PropertyDictionary.loadFromResource("example.yaml", true);
+        Assert.assertTrue(propertyDictionary.caseSensitive);
+        Assert.assertEquals(7, propertyDictionary.size());
+        Assert.assertNotNull(propertyDictionary.get("DelayTime"));
+        Assert.assertNull("Case-sensitive dictionary must not find a property by a name in other case", propertyDictionary.get("delayTime"));
+        Assert.assertEquals("DelayTime", propertyDictionary.getByCmdProperty(new ParsedCmdProperty('l', "5", true)).getName());
+
+        try {
+            PropertyDictionary.loadFromResource("madeUpDictionary.yaml");
+            Assert.fail("Should throw exception, but it didn't");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Resource madeUpDictionary.yaml not found", e.getMessage());
+        }
     }
 
     @Test
@@ -132,4 +157,57 @@ public class PropertyYamlTest {
             Assert.assertEquals("Property name must be almost the same as key, they can use different case or hyphens or dots, but alphanumerical characters must be equal (SERVER_PORT vs ClientPort)", e.getMessage());
         }
     }
+
+    @Test
+    public void cachedResourceTest() throws IOException {
+        Path cacheDirectory = Files.createTempDirectory("propload-cache");
+        PropertyDictionary parsed = PropertyDictionary.loadFromResource("example.yaml", false, cacheDirectory);
+        Path cacheFile;
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            cacheFile = files.collect(Collectors.toList()).get(0);
+        }
+        Assert.assertTrue(cacheFile.getFileName().toString().startsWith("example.yaml-"));
+
+        PropertyDictionary cached = PropertyDictionary.loadFromResource("example.yaml", false, cacheDirectory);
+        Assert.assertEquals(parsed.keySet(), cached.keySet());
+        for (String key : parsed.keySet()) {
+            PropertyDefinition expected = parsed.get(key);
+            PropertyDefinition actual = cached.get(key);
+            Assert.assertEquals(expected.getName(), actual.getName());
+            Assert.assertEquals(expected.getDescription(), actual.getDescription());
+            Assert.assertEquals(expected.getDefaultValue(), actual.getDefaultValue());
+            Assert.assertEquals(expected.getParametrization(), actual.getParametrization());
+            Assert.assertEquals(expected.getParamType(), actual.getParamType());
+            Assert.assertEquals(expected.isRequired(), actual.isRequired());
+            Assert.assertEquals(expected.isSensitive(), actual.isSensitive());
+            Assert.assertEquals(expected.getCharCmdAlias(), actual.getCharCmdAlias());
+            Assert.assertArrayEquals(expected.getCmdAliases(), actual.getCmdAliases());
+            Assert.assertEquals(expected.getMin(), actual.getMin());
+            Assert.assertEquals(expected.getMax(), actual.getMax());
+            Assert.assertEquals(expected.getPattern(), actual.getPattern());
+            Assert.assertArrayEquals(expected.getAllowedValues(), actual.getAllowedValues());
+        }
+        Assert.assertSame(cached.get("DelayTime"), cached.getByCmdProperty(new ParsedCmdProperty('L', "5", true)));
+        Assert.assertSame(cached.get("MAIN_USERNAME"), cached.getByCmdProperty(new ParsedCmdProperty("USER", "me", true)));
+
+        Files.write(cacheFile, new byte[]{1, 2, 3});
+        Assert.assertEquals("Broken cache must be ignored", 7, PropertyDictionary.loadFromResource("example.yaml", false, cacheDirectory).size());
+        Assert.assertTrue("Broken cache must be rewritten", Files.size(cacheFile) > 3);
+        Assert.assertTrue("Cache of other case sensitivity must be ignored",
+                PropertyDictionary.loadFromResource("example.yaml", true, cacheDirectory).caseSensitive);
+    }
+
+    @Test
+    public void cachedFileTest() throws IOException {
+        Path cacheDirectory = Files.createTempDirectory("propload-cache");
+        Path yaml = Files.createTempFile("dictionary", ".yaml");
+        Files.write(yaml, "TTL:\n  param_type: INTEGER\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(PropertyDefinition.ParamType.INTEGER,
+                PropertyDictionary.loadFromFile(yaml.toFile(), false, cacheDirectory).get("ttl").getParamType());
+
+        Files.write(yaml, "TTL:\n  param_type: LONG\nDEBUG:\n".getBytes(StandardCharsets.UTF_8));
+        PropertyDictionary propertyDictionary = PropertyDictionary.loadFromFile(yaml.toFile(), false, cacheDirectory);
+        Assert.assertEquals("Outdated cache must not be used", PropertyDefinition.ParamType.LONG, propertyDictionary.get("ttl").getParamType());
+        Assert.assertEquals(2, propertyDictionary.size());
+    }
 }